@@ -0,0 +1,190 @@
+package me.wtao.widget;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Inflates the content layouts of {@link SlidingDrawer} on a background
+ * worker shared by every drawer, and delivers them on the UI thread.<br>
+ * 
+ * The inflation only builds the views, they are attached by the callback. A
+ * layout which can't be inflated off the UI thread, f.e. a view creating a
+ * {@link Handler} in its constructor, is reported as failed, the callback
+ * inflates it on the UI thread then.<br>
+ * 
+ * Each request inflates with its own clone of the {@link LayoutInflater} of
+ * the context, whose inflations are serialized on a lock: the UI thread
+ * never waits for the background one to inflate its own layouts.
+ */
+final class AsyncContentInflater {
+	private static Executor sExecutor;
+
+	/**
+	 * Callback invoked on the UI thread.
+	 */
+	static interface Callback {
+		/**
+		 * @param content
+		 *            the inflated content, null if the inflation failed
+		 */
+		public void onInflateFinished(View content);
+	}
+
+	private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+	private static synchronized Executor getExecutor() {
+		if (sExecutor == null) {
+			sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread thread = new Thread(r, "SlidingDrawerInflater") {
+						@Override
+						public void run() {
+							Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+							super.run();
+						}
+					};
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return sExecutor;
+	}
+
+	/**
+	 * Starts inflating the layout.
+	 * 
+	 * @param parent
+	 *            the parent the content will be attached to, only used to
+	 *            generate its layout params
+	 * @return the request, to cancel or adopt it
+	 */
+	Request inflate(Context context, int layout, ViewGroup parent,
+			Callback callback) {
+		final Request request = new Request(LayoutInflater.from(context)
+				.cloneInContext(context), layout, parent, callback);
+		getExecutor().execute(request);
+		return request;
+	}
+
+	final class Request implements Runnable {
+		private final LayoutInflater mInflater;
+		private final int mLayout;
+		private final ViewGroup mParent;
+		private final Callback mCallback;
+		private volatile boolean mCanceled;
+		/**
+		 * guarded by this: the inflation started, on whichever thread
+		 */
+		private boolean mStarted;
+		/**
+		 * guarded by this: the result is delivered to {@link #adopt()}
+		 * rather than to the callback
+		 */
+		private boolean mAdopted;
+		/**
+		 * guarded by this: the background inflation is over, its content is
+		 * {@link #mResult}
+		 */
+		private boolean mFinished;
+		private View mResult;
+
+		Request(LayoutInflater inflater, int layout, ViewGroup parent,
+				Callback callback) {
+			mInflater = inflater;
+			mLayout = layout;
+			mParent = parent;
+			mCallback = callback;
+		}
+
+		/**
+		 * The callback won't be invoked, the inflation is dropped if it
+		 * didn't start yet.
+		 */
+		void cancel() {
+			mCanceled = true;
+		}
+
+		/**
+		 * Takes the content over on the UI thread, when it is needed right
+		 * away: inflates it there if the background inflation didn't start
+		 * yet, otherwise waits for the background one to finish rather than
+		 * inflating the layout a second time. The callback won't be invoked.
+		 * 
+		 * @return the inflated content, null if the inflation failed
+		 */
+		View adopt() {
+			synchronized (this) {
+				mAdopted = true;
+				if (mStarted) {
+					boolean interrupted = false;
+					while (!mFinished) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							interrupted = true;
+						}
+					}
+					if (interrupted) {
+						Thread.currentThread().interrupt();
+					}
+					return mResult;
+				}
+				mStarted = true;
+			}
+			return inflateContent();
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if (mCanceled || mStarted) {
+					return;
+				}
+				mStarted = true;
+			}
+
+			final View result = inflateContent();
+			synchronized (this) {
+				mResult = result;
+				mFinished = true;
+				notifyAll();
+				if (mAdopted) {
+					return;
+				}
+			}
+
+			mHandler.post(new Runnable() {
+				@Override
+				public void run() {
+					if (!mCanceled && !isAdopted()) {
+						mCallback.onInflateFinished(result);
+					}
+				}
+			});
+		}
+
+		private synchronized boolean isAdopted() {
+			return mAdopted;
+		}
+
+		private View inflateContent() {
+			try {
+				return mInflater.inflate(mLayout, mParent, false);
+			} catch (RuntimeException e) {
+				// inflated from the stub on the UI thread then
+				return null;
+			}
+		}
+	}
+}
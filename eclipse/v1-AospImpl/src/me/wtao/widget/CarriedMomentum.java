@@ -0,0 +1,71 @@
+package me.wtao.widget;
+
+/**
+ * Velocity a handle had when the user grabbed it mid-flight, blended into the
+ * velocity tracked by the drag when the handle is released: the longer it was
+ * held, the less of it is kept, with an exponential decay.<br>
+ * 
+ * Both velocities must be in the same unit, the one of the velocities handed
+ * to {@link #combine(float, long)}. Pure Java, so that it can be unit-tested
+ * without Android.<br>
+ * Time unit is one millisecond.
+ */
+final class CarriedMomentum {
+	/**
+	 * time constant (ms) of the decay
+	 */
+	private final long mDecay;
+	private float mVelocity;
+	/**
+	 * time (ms) when the velocity was carried
+	 */
+	private long mTime;
+
+	/**
+	 * @param decay
+	 *            time constant (ms) of the decay, the carried velocity weighs
+	 *            1/e once held that long
+	 */
+	CarriedMomentum(long decay) {
+		if (decay <= 0) {
+			throw new IllegalArgumentException(
+					"The decay should be positive.");
+		}
+		mDecay = decay;
+	}
+
+	/**
+	 * Carries a velocity into the drag starting at time.
+	 */
+	void carry(float velocity, long time) {
+		mVelocity = velocity;
+		mTime = time;
+	}
+
+	void clear() {
+		mVelocity = 0;
+	}
+
+	/**
+	 * Blends the carried velocity into the tracked one, then forgets it.
+	 * 
+	 * @param trackedVelocity
+	 *            velocity of the drag, in the unit of the carried one
+	 * @param now
+	 *            time (ms) of the release
+	 * @return the blended velocity, the tracked one if none was carried
+	 */
+	float combine(float trackedVelocity, long now) {
+		if (mVelocity == 0) {
+			return trackedVelocity;
+		}
+
+		final long held = Math.max(0, now - mTime);
+		final float weight = (float) Math.exp(-held / (double) mDecay);
+		final float velocity = weight * mVelocity + (1 - weight)
+				* trackedVelocity;
+		mVelocity = 0;
+
+		return velocity;
+	}
+}
@@ -0,0 +1,94 @@
+package me.wtao.widget;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+/**
+ * Strategy rendering the content of a {@link SlidingDrawer} while it is
+ * dragged or animated, f.e. from a {@link SoftwareCacheStrategy software
+ * bitmap}, a {@link HardwareLayerStrategy hardware layer} held for the
+ * duration of the motion, or {@link DirectDrawStrategy directly}.<br>
+ * 
+ * Once the drawer is at rest the content is drawn as any other child, the
+ * strategy is only involved from {@link #onMotionStarted(SlidingDrawer, View)}
+ * to {@link #onMotionEnded(SlidingDrawer, View, boolean)}. It may keep what
+ * it built while the drawer is closed, f.e. a snapshot, and reuse it for the
+ * next motion as long as {@link SlidingDrawer#getContentGeneration()} has not
+ * changed, until {@link #release(SlidingDrawer, View)}.
+ * 
+ * @see Policy
+ * @see SlidingDrawer#setContentRenderPolicy(ContentRenderStrategy.Policy)
+ */
+public interface ContentRenderStrategy {
+
+	/**
+	 * Picks the strategy used by a drawer for the next motion, f.e. according
+	 * to the complexity of the content and the hardware acceleration.<br>
+	 * Strategies may keep state about the content they render, so a policy
+	 * should hand out its own strategies to a single drawer.
+	 * 
+	 * @see DefaultRenderPolicy
+	 */
+	public static interface Policy {
+		/**
+		 * @param content
+		 *            The content of the drawer, measured and laid out.
+		 * @return the strategy rendering the content during the next motion
+		 */
+		public ContentRenderStrategy select(View content);
+	}
+
+	/**
+	 * Invoked when the drawer starts moving, the content is measured and laid
+	 * out. The place to build caches or layers, or to check the ones kept from
+	 * the previous motion are still up to date.
+	 */
+	public void onMotionStarted(SlidingDrawer drawer, View content);
+
+	/**
+	 * Invoked while the drawer is closed and the application idle, before its
+	 * first motion. The place to build ahead what
+	 * {@link #onMotionStarted(SlidingDrawer, View)} would, as long as it can
+	 * be kept until then at no cost.
+	 */
+	public void warmUp(SlidingDrawer drawer, View content);
+
+	/**
+	 * Draws the content at its current place during the motion.
+	 * 
+	 * @param canvas
+	 *            The canvas of the drawer.
+	 * @param left
+	 *            where the left of the content is drawn, in the coordinates
+	 *            of the drawer
+	 * @param top
+	 *            where the top of the content is drawn, in the coordinates of
+	 *            the drawer
+	 */
+	public void draw(SlidingDrawer drawer, Canvas canvas, View content,
+			float left, float top);
+
+	/**
+	 * Invoked when the drawer comes to rest. The place to release what
+	 * {@link #onMotionStarted(SlidingDrawer, View)} built, or to keep it for
+	 * the next motion.
+	 * 
+	 * @param opened
+	 *            true if the drawer came to rest opened, its content is then
+	 *            drawn live and is likely to change
+	 */
+	public void onMotionEnded(SlidingDrawer drawer, View content,
+			boolean opened);
+
+	/**
+	 * Invoked when the drawer won't use this strategy anymore, or has to give
+	 * memory back. Releases everything kept between motions.
+	 */
+	public void release(SlidingDrawer drawer, View content);
+
+	/**
+	 * @return bytes held by the strategy for the content, f.e. by a snapshot
+	 *         or a layer, 0 if none
+	 */
+	public long getRetainedSize();
+}
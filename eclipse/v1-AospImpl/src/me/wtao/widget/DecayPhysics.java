@@ -0,0 +1,78 @@
+package me.wtao.widget;
+
+/**
+ * Exponential decay towards the target: the handle travels M*(1 - e^(-k*t)),
+ * where k is the friction and M the larger of the distance to the target and
+ * the distance the fling momentum would carry it, v/k. So it always comes to
+ * rest on the target, either by stopping there or by easing into it.<br>
+ * Unlike {@link GravityPhysics} the handle decelerates as it arrives, which
+ * lands softly and in few frames.
+ */
+public class DecayPhysics implements DrawerPhysics {
+	/**
+	 * the handle is at rest once closer than {@value #POSITION_TOLERANCE} px
+	 * from the target
+	 */
+	private static final float POSITION_TOLERANCE = 0.5f;
+
+	private final float mFriction;
+
+	/**
+	 * @param friction
+	 *            decay rate, in 1/s; the handle covers 63% of its travel in
+	 *            1/friction s
+	 */
+	public DecayPhysics(float friction) {
+		if (friction <= 0) {
+			throw new IllegalArgumentException(
+					"The friction should be positive.");
+		}
+		mFriction = friction;
+	}
+
+	@Override
+	public Trajectory createTrajectory(float start, float velocity,
+			float target) {
+		return new DecayTrajectory(start, velocity, target, mFriction);
+	}
+
+	private static class DecayTrajectory extends Trajectory {
+		private final float mFriction;
+		/**
+		 * signed travel the handle would cover if it were not stopped by the
+		 * target
+		 */
+		private final float mTravel;
+
+		DecayTrajectory(float start, float velocity, float target,
+				float friction) {
+			super(start, target);
+			mFriction = friction;
+
+			final float distance = Math.abs(target - start);
+			final float momentum = (target < start ? -velocity : velocity)
+					/ friction;
+			final float travel = Math.max(distance, momentum);
+			mTravel = (target < start ? -travel : travel);
+
+			if (distance < POSITION_TOLERANCE) {
+				setDuration(0);
+			} else {
+				// solve travel*(1 - e^(-k*t)) = distance - tolerance
+				setDuration((float) (Math.log(travel
+						/ (travel - distance + POSITION_TOLERANCE)) / friction));
+			}
+		}
+
+		@Override
+		protected float computePosition(float t) {
+			return getStart() + mTravel
+					* (1 - (float) Math.exp(-mFriction * t));
+		}
+
+		@Override
+		protected float computeVelocity(float t) {
+			return mTravel * mFriction * (float) Math.exp(-mFriction * t);
+		}
+	}
+}
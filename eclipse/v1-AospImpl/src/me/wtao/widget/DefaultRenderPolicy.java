@@ -0,0 +1,58 @@
+package me.wtao.widget;
+
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Default {@link ContentRenderStrategy.Policy} of {@link SlidingDrawer}: a
+ * software cache without hardware acceleration, otherwise a hardware layer
+ * when the content has at least {@value #COMPLEX_CONTENT_VIEW_COUNT} views,
+ * so that heavy content is never drawn from scratch on every frame, and a
+ * direct draw for simpler content.
+ */
+public class DefaultRenderPolicy implements ContentRenderStrategy.Policy {
+	/**
+	 * content with at least {@value #COMPLEX_CONTENT_VIEW_COUNT} views is
+	 * rendered from a hardware layer
+	 */
+	private static final int COMPLEX_CONTENT_VIEW_COUNT = 16;
+
+	private final ContentRenderStrategy mSoftwareCache = new SoftwareCacheStrategy();
+	private final ContentRenderStrategy mHardwareLayer;
+	private final ContentRenderStrategy mDirectDraw = new DirectDrawStrategy();
+
+	public DefaultRenderPolicy() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+			mHardwareLayer = new HardwareLayerStrategy();
+		} else {
+			mHardwareLayer = mSoftwareCache;
+		}
+	}
+
+	@Override
+	public ContentRenderStrategy select(View content) {
+		if (!content.isHardwareAccelerated()) {
+			return mSoftwareCache;
+		}
+		if (countViews(content, COMPLEX_CONTENT_VIEW_COUNT) >= COMPLEX_CONTENT_VIEW_COUNT) {
+			return mHardwareLayer;
+		}
+		return mDirectDraw;
+	}
+
+	/**
+	 * @return number of views in the tree, counting stops at limit
+	 */
+	private static int countViews(View view, int limit) {
+		int count = 1;
+		if (view instanceof ViewGroup) {
+			final ViewGroup group = (ViewGroup) view;
+			final int childCount = group.getChildCount();
+			for (int i = 0; i != childCount && count < limit; ++i) {
+				count += countViews(group.getChildAt(i), limit - count);
+			}
+		}
+		return count;
+	}
+}
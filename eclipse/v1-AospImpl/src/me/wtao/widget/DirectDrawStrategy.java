@@ -0,0 +1,52 @@
+package me.wtao.widget;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+/**
+ * Draws the content subtree on every frame, without any cache. Cheap enough
+ * for simple content with hardware acceleration, where drawing replays the
+ * display lists.
+ */
+public class DirectDrawStrategy implements ContentRenderStrategy {
+
+	@Override
+	public void onMotionStarted(SlidingDrawer drawer, View content) {
+	}
+
+	@Override
+	public void warmUp(SlidingDrawer drawer, View content) {
+	}
+
+	@Override
+	public void draw(SlidingDrawer drawer, Canvas canvas, View content,
+			float left, float top) {
+		drawAt(drawer, canvas, content, left, top);
+	}
+
+	@Override
+	public void onMotionEnded(SlidingDrawer drawer, View content,
+			boolean opened) {
+	}
+
+	@Override
+	public void release(SlidingDrawer drawer, View content) {
+	}
+
+	@Override
+	public long getRetainedSize() {
+		return 0;
+	}
+
+	static void drawAt(SlidingDrawer drawer, Canvas canvas, View content,
+			float left, float top) {
+		canvas.save();
+
+		// canvas.translate (dx, dy) -> original point (x0+dx, y0+dy), the
+		// child is drawn at its layout position
+		canvas.translate(left - content.getLeft(), top - content.getTop());
+		drawer.drawContent(canvas);
+
+		canvas.restore();
+	}
+}
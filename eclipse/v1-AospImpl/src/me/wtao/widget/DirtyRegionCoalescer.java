@@ -0,0 +1,77 @@
+package me.wtao.widget;
+
+import android.graphics.Rect;
+import android.view.View;
+
+/**
+ * Merges the regions invalidated by the moves of the handle within a frame,
+ * so that {@link SlidingDrawer} issues a single invalidation per frame
+ * whatever the number of moves. The requests and the invalidations actually
+ * issued are counted for debugging.
+ */
+final class DirtyRegionCoalescer {
+	private final Rect mRegion = new Rect();
+	private boolean mDirty;
+
+	private int mRequestCount;
+	private int mInvalidateCount;
+
+	/**
+	 * Adds a region to the one to invalidate at the next flush.
+	 * 
+	 * @return true if it is the first region since the last flush, the flush
+	 *         has to be scheduled then
+	 */
+	boolean union(Rect region) {
+		++mRequestCount;
+		if (mDirty) {
+			mRegion.union(region);
+			return false;
+		}
+		mRegion.set(region);
+		mDirty = true;
+		return true;
+	}
+
+	boolean isDirty() {
+		return mDirty;
+	}
+
+	/**
+	 * Invalidates the merged region of the view, if any.
+	 */
+	void flush(View view) {
+		if (mDirty) {
+			mDirty = false;
+			++mInvalidateCount;
+			view.invalidate(mRegion);
+		}
+	}
+
+	/**
+	 * Drops the merged region, when the whole view is invalidated anyway.
+	 */
+	void discard() {
+		mDirty = false;
+	}
+
+	/**
+	 * @return number of invalidations issued so far
+	 */
+	int getInvalidateCount() {
+		return mInvalidateCount;
+	}
+
+	/**
+	 * @return number of regions merged into another invalidation, or dropped
+	 *         in favor of a full one
+	 */
+	int getMergedCount() {
+		return mRequestCount - mInvalidateCount - (mDirty ? 1 : 0);
+	}
+
+	void resetCounters() {
+		mRequestCount = (mDirty ? 1 : 0);
+		mInvalidateCount = 0;
+	}
+}
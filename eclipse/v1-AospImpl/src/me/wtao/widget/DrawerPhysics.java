@@ -0,0 +1,116 @@
+package me.wtao.widget;
+
+/**
+ * Physics model moving the handle of a {@link SlidingDrawer} once the user
+ * has released it, or once {@link SlidingDrawer#animateOpen()} or
+ * {@link SlidingDrawer#animateClose()} has been called.<br>
+ * 
+ * The drawer first decides where the handle comes to rest, the target, then
+ * asks the model for the whole {@link Trajectory} up front. Each frame only
+ * evaluates the trajectory at the time elapsed since the fling, so there is
+ * no accumulated error, a long frame can't change the end state and the same
+ * fling always goes through the same positions.<br>
+ * 
+ * Implementations must be pure Java, so that they can be unit-tested and
+ * benchmarked on a plain JVM. Built-in models are {@link GravityPhysics}, the
+ * default one, {@link SpringPhysics} and {@link DecayPhysics}.<br>
+ * Position unit is one pixel, velocity unit is one pixel per second and time
+ * unit is one second.
+ * 
+ * @see SlidingDrawer#setDrawerPhysics(DrawerPhysics)
+ */
+public interface DrawerPhysics {
+
+	/**
+	 * Computes the motion of a fling.
+	 * 
+	 * @param start
+	 *            position of the handle when released
+	 * @param velocity
+	 *            velocity of the handle when released, never pointing away
+	 *            from the target
+	 * @param target
+	 *            position where the handle comes to rest
+	 * @return the trajectory from start to target
+	 */
+	public Trajectory createTrajectory(float start, float velocity,
+			float target);
+
+	/**
+	 * Closed-form motion of the handle from its start to its target, as a
+	 * function of the time elapsed since the fling.
+	 */
+	public static abstract class Trajectory {
+		private final float mStart;
+		private final float mTarget;
+		private float mDuration;
+
+		protected Trajectory(float start, float target) {
+			mStart = start;
+			mTarget = target;
+		}
+
+		public final float getStart() {
+			return mStart;
+		}
+
+		public final float getTarget() {
+			return mTarget;
+		}
+
+		/**
+		 * @return time (s) taken to come to rest on the target
+		 */
+		public final float getDuration() {
+			return mDuration;
+		}
+
+		/**
+		 * Must be called once by the constructor of subclasses.
+		 */
+		protected final void setDuration(float duration) {
+			mDuration = Math.max(0, duration);
+		}
+
+		/**
+		 * @return true if the handle is at rest on the target at time t (s)
+		 */
+		public final boolean isFinished(float t) {
+			return t >= mDuration;
+		}
+
+		/**
+		 * @return position of the handle at time t (s), exactly the target
+		 *         once finished
+		 */
+		public final float getPosition(float t) {
+			if (isFinished(t)) {
+				return mTarget;
+			}
+			return computePosition(Math.max(0, t));
+		}
+
+		/**
+		 * @return velocity (px/s) of the handle at time t (s), zero once
+		 *         finished
+		 */
+		public final float getVelocity(float t) {
+			if (isFinished(t)) {
+				return 0;
+			}
+			return computeVelocity(Math.max(0, t));
+		}
+
+		/**
+		 * @param t
+		 *            time (s), within [0, {@link #getDuration()})
+		 */
+		protected abstract float computePosition(float t);
+
+		/**
+		 * @param t
+		 *            time (s), within [0, {@link #getDuration()})
+		 */
+		protected abstract float computeVelocity(float t);
+	}
+}
@@ -0,0 +1,68 @@
+package me.wtao.widget;
+
+/**
+ * Immutable state of a {@link SlidingDrawer} at a frame, as published by
+ * {@link DrawerStatePublisher}.
+ */
+public final class DrawerState {
+	private final float mFraction;
+	private final float mVelocity;
+	private final int mState;
+	private final long mTime;
+
+	/**
+	 * @param fraction
+	 *            how far the drawer is opened, from 0 closed to 1 opened
+	 * @param velocity
+	 *            speed of the fraction per second, positive when opening
+	 * @param state
+	 *            one of {@link SlidingDrawer#STATE_IDLE},
+	 *            {@link SlidingDrawer#STATE_DRAGGING} or
+	 *            {@link SlidingDrawer#STATE_SETTLING}
+	 * @param time
+	 *            time (ms) when the state was reached, in the
+	 *            {@link android.os.SystemClock#uptimeMillis()} time base
+	 */
+	public DrawerState(float fraction, float velocity, int state, long time) {
+		mFraction = fraction;
+		mVelocity = velocity;
+		mState = state;
+		mTime = time;
+	}
+
+	public float getFraction() {
+		return mFraction;
+	}
+
+	public float getVelocity() {
+		return mVelocity;
+	}
+
+	public int getState() {
+		return mState;
+	}
+
+	public long getTime() {
+		return mTime;
+	}
+
+	/**
+	 * @return true if the drawer is at rest and fully opened
+	 */
+	public boolean isOpened() {
+		return mState == SlidingDrawer.STATE_IDLE && mFraction == 1;
+	}
+
+	/**
+	 * @return true if the drawer is at rest and fully closed
+	 */
+	public boolean isClosed() {
+		return mState == SlidingDrawer.STATE_IDLE && mFraction == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "DrawerState{fraction=" + mFraction + ", velocity=" + mVelocity
+				+ ", state=" + mState + ", time=" + mTime + "}";
+	}
+}
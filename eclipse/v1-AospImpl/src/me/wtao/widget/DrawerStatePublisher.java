@@ -0,0 +1,360 @@
+package me.wtao.widget;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import me.wtao.utils.Logcat;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Publishes the {@link DrawerState} of a {@link SlidingDrawer} to any number
+ * of subscribers, each on the {@link Executor} of its choice, with the
+ * contract of the reactive streams: a subscriber receives no more states
+ * than it requested.<br>
+ * 
+ * The stream is conflated: a subscriber which can't keep up only receives the
+ * latest state once it requests more, the states in between are dropped. The
+ * drawer only records the state and, for the subscribers which requested
+ * some, schedules the delivery, it never waits for a subscriber. A state is
+ * only built once a subscriber takes it, then shared by all of them.<br>
+ * 
+ * The publisher lives as long as its drawer, across detach and attach.
+ * {@link #close()} completes the subscribers, the drawer stops feeding it
+ * then.
+ * 
+ * @see SlidingDrawer#getStatePublisher()
+ */
+public class DrawerStatePublisher implements
+		SlidingDrawer.OnDrawerProgressListener {
+	private static Logcat sLogcat = new Logcat();
+
+	/**
+	 * Receives the states, mirrors {@code java.util.concurrent.Flow.Subscriber}
+	 * which isn't available on Android.
+	 */
+	public static interface Subscriber<T> {
+		/**
+		 * Invoked first, no state is delivered before the subscription is
+		 * requested some.
+		 */
+		public void onSubscribe(Subscription subscription);
+
+		public void onNext(T item);
+
+		public void onError(Throwable throwable);
+
+		public void onComplete();
+	}
+
+	/**
+	 * Link between the publisher and a subscriber, mirrors
+	 * {@code java.util.concurrent.Flow.Subscription}.
+	 */
+	public static interface Subscription {
+		/**
+		 * Requests n more states, {@link Long#MAX_VALUE} for all of them.
+		 */
+		public void request(long n);
+
+		/**
+		 * Stops the delivery, eventually.
+		 */
+		public void cancel();
+	}
+
+	private final CopyOnWriteArrayList<ConflatedSubscription> mSubscriptions = new CopyOnWriteArrayList<ConflatedSubscription>();
+	private final Executor mMainExecutor;
+	private volatile boolean mClosed;
+
+	/**
+	 * guards the latest state
+	 */
+	private final Object mLock = new Object();
+	private float mFraction;
+	private float mVelocity;
+	private int mState;
+	private long mTime;
+	/**
+	 * incremented by each state, 0 before the first one
+	 */
+	private volatile long mVersion;
+	/**
+	 * the latest state, built on demand, null until then
+	 */
+	private DrawerState mLatest;
+
+	public DrawerStatePublisher() {
+		this(new Executor() {
+			private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+			@Override
+			public void execute(Runnable command) {
+				mHandler.post(command);
+			}
+		});
+	}
+
+	/**
+	 * @param mainExecutor
+	 *            executor of the subscribers of {@link #subscribe(Subscriber)},
+	 *            the UI thread out of the tests
+	 */
+	DrawerStatePublisher(Executor mainExecutor) {
+		mMainExecutor = mainExecutor;
+	}
+
+	/**
+	 * Subscribes on the UI thread, outside of the frame which produced the
+	 * states.
+	 */
+	public void subscribe(Subscriber<? super DrawerState> subscriber) {
+		subscribe(subscriber, mMainExecutor);
+	}
+
+	/**
+	 * Subscribes, the subscriber is invoked on the executor, one invocation at
+	 * a time. The latest state, if any, is the first one delivered.
+	 */
+	public void subscribe(Subscriber<? super DrawerState> subscriber,
+			Executor executor) {
+		if (subscriber == null || executor == null) {
+			throw new NullPointerException();
+		}
+
+		final ConflatedSubscription subscription = new ConflatedSubscription(
+				subscriber, executor);
+		if (!mClosed) {
+			mSubscriptions.add(subscription);
+			if (mClosed) {
+				// closed in between, maybe missed by close()
+				mSubscriptions.remove(subscription);
+				subscription.complete();
+			}
+		} else {
+			subscription.complete();
+		}
+		// delivers onSubscribe
+		subscription.drain();
+	}
+
+	/**
+	 * Publishes a state to every subscriber, never blocks.
+	 */
+	public void publish(DrawerState state) {
+		synchronized (mLock) {
+			mFraction = state.getFraction();
+			mVelocity = state.getVelocity();
+			mState = state.getState();
+			mTime = state.getTime();
+			mLatest = state;
+			++mVersion;
+		}
+		signalSubscriptions();
+	}
+
+	/**
+	 * Completes every subscription, the subscribers to come are completed
+	 * right away.
+	 */
+	public void close() {
+		mClosed = true;
+		for (ConflatedSubscription subscription : mSubscriptions) {
+			mSubscriptions.remove(subscription);
+			subscription.complete();
+		}
+	}
+
+	/**
+	 * @return true once {@link #close()} was called
+	 */
+	public boolean isClosed() {
+		return mClosed;
+	}
+
+	/**
+	 * @return number of live subscriptions
+	 */
+	public int getSubscriberCount() {
+		return mSubscriptions.size();
+	}
+
+	@Override
+	public void onDrawerProgress(SlidingDrawer drawer, float fraction,
+			float velocity, int state) {
+		if (mClosed) {
+			drawer.removeOnDrawerProgressListener(this);
+			return;
+		}
+
+		// recorded as is, the state is only built if a subscriber takes it
+		synchronized (mLock) {
+			mFraction = fraction;
+			mVelocity = velocity;
+			mState = state;
+			mTime = SystemClock.uptimeMillis();
+			mLatest = null;
+			++mVersion;
+		}
+		signalSubscriptions();
+	}
+
+	private void signalSubscriptions() {
+		for (ConflatedSubscription subscription : mSubscriptions) {
+			subscription.signal();
+		}
+	}
+
+	private final class ConflatedSubscription implements Subscription,
+			Runnable {
+		private final Subscriber<? super DrawerState> mSubscriber;
+		private final Executor mExecutor;
+		private final AtomicLong mRequested = new AtomicLong();
+		/**
+		 * number of drain requests, the drain runs while not 0
+		 */
+		private final AtomicInteger mWorkInProgress = new AtomicInteger();
+
+		private volatile boolean mCanceled;
+		private volatile boolean mCompleted;
+		private volatile Throwable mError;
+		/**
+		 * only touched by the drain
+		 */
+		private boolean mSubscribed;
+		private boolean mTerminated;
+		/**
+		 * version of the last state delivered, the states in between are
+		 * dropped
+		 */
+		private long mDeliveredVersion;
+
+		ConflatedSubscription(Subscriber<? super DrawerState> subscriber,
+				Executor executor) {
+			mSubscriber = subscriber;
+			mExecutor = executor;
+		}
+
+		/**
+		 * A new state was published, only worth a drain if requested.
+		 */
+		void signal() {
+			if (mRequested.get() > 0) {
+				drain();
+			}
+		}
+
+		void complete() {
+			mCompleted = true;
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				mError = new IllegalArgumentException(
+						"The number of requested states should be positive.");
+			} else {
+				long requested;
+				long next;
+				do {
+					requested = mRequested.get();
+					next = requested + n;
+					if (next < 0) {
+						// saturated, unbounded
+						next = Long.MAX_VALUE;
+					}
+				} while (!mRequested.compareAndSet(requested, next));
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			mCanceled = true;
+			mSubscriptions.remove(this);
+		}
+
+		/**
+		 * @return the latest state if not delivered yet, null otherwise
+		 */
+		private DrawerState takeLatest() {
+			synchronized (mLock) {
+				if (mVersion == mDeliveredVersion) {
+					return null;
+				}
+				mDeliveredVersion = mVersion;
+				if (mLatest == null) {
+					mLatest = new DrawerState(mFraction, mVelocity, mState,
+							mTime);
+				}
+				return mLatest;
+			}
+		}
+
+		void drain() {
+			if (mWorkInProgress.getAndIncrement() == 0) {
+				mExecutor.execute(this);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			do {
+				try {
+					drainOnce();
+				} catch (RuntimeException e) {
+					// the subscriber broke the contract, it gets nothing more
+					mTerminated = true;
+					cancel();
+					sLogcat.e("subscriber failed, canceled ? ", mSubscriber,
+							"\n", Log.getStackTraceString(e));
+				}
+				missed = mWorkInProgress.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void drainOnce() {
+			if (mTerminated) {
+				return;
+			}
+			if (!mSubscribed) {
+				mSubscribed = true;
+				mSubscriber.onSubscribe(this);
+			}
+			if (mCanceled) {
+				mTerminated = true;
+				return;
+			}
+
+			final Throwable error = mError;
+			if (error != null) {
+				mTerminated = true;
+				cancel();
+				mSubscriber.onError(error);
+				return;
+			}
+
+			if (mRequested.get() > 0) {
+				final DrawerState state = takeLatest();
+				if (state != null) {
+					if (mRequested.get() != Long.MAX_VALUE) {
+						mRequested.decrementAndGet();
+					}
+					mSubscriber.onNext(state);
+				}
+			}
+
+			// a state nobody requested is dropped
+			if (mCompleted) {
+				mTerminated = true;
+				mSubscriber.onComplete();
+			}
+		}
+	}
+}
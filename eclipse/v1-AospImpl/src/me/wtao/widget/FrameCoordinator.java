@@ -0,0 +1,93 @@
+package me.wtao.widget;
+
+import java.util.ArrayList;
+import java.util.WeakHashMap;
+
+import android.os.IBinder;
+
+/**
+ * Drives the frames of every {@link SlidingDrawer} of a window from a single
+ * {@link FrameTicker}: the drawers which requested a frame are all stepped
+ * with the same frame time, then all invalidated, so that drawers animated
+ * together move in lockstep and wake the UI thread up once per frame.<br>
+ * 
+ * Like the ticker, a request is one-shot: a drawer has to request the next
+ * frame while stepping the current one.
+ */
+final class FrameCoordinator implements FrameTicker.Callback {
+	/**
+	 * coordinators by window token, dropped with their window
+	 */
+	private static final WeakHashMap<IBinder, FrameCoordinator> sCoordinators = new WeakHashMap<IBinder, FrameCoordinator>();
+
+	private final FrameTicker mTicker = FrameTicker.create(this);
+	/**
+	 * drawers which requested the next frame
+	 */
+	private final ArrayList<SlidingDrawer> mPending = new ArrayList<SlidingDrawer>();
+	/**
+	 * drawers stepped by the current frame, reused by every frame
+	 */
+	private final ArrayList<SlidingDrawer> mStepping = new ArrayList<SlidingDrawer>();
+
+	private FrameCoordinator() {
+	}
+
+	/**
+	 * Returns the coordinator of the window, created on first use. Must be
+	 * called on the UI thread.
+	 * 
+	 * @param windowToken
+	 *            token of the window the drawer is attached to
+	 */
+	static FrameCoordinator get(IBinder windowToken) {
+		FrameCoordinator coordinator = sCoordinators.get(windowToken);
+		if (coordinator == null) {
+			coordinator = new FrameCoordinator();
+			sCoordinators.put(windowToken, coordinator);
+		}
+		return coordinator;
+	}
+
+	/**
+	 * Requests a step of the drawer on the next frame, does nothing if
+	 * already requested.
+	 */
+	void requestFrame(SlidingDrawer drawer) {
+		if (!mPending.contains(drawer)) {
+			mPending.add(drawer);
+		}
+		mTicker.scheduleFrame();
+	}
+
+	/**
+	 * Removes the request of the drawer, if any.
+	 */
+	void cancelFrame(SlidingDrawer drawer) {
+		mPending.remove(drawer);
+		if (mPending.isEmpty()) {
+			mTicker.cancelFrame();
+		}
+	}
+
+	@Override
+	public void onFrame(long frameTimeNanos) {
+		final long frameTime = frameTimeNanos / 1000000L;
+
+		// the drawers request the next frame while being stepped
+		final ArrayList<SlidingDrawer> stepping = mStepping;
+		stepping.addAll(mPending);
+		mPending.clear();
+
+		final int count = stepping.size();
+		for (int i = 0; i != count; ++i) {
+			stepping.get(i).stepFrame(frameTime);
+		}
+		// every move of the frame is invalidated at once
+		for (int i = 0; i != count; ++i) {
+			stepping.get(i).flushFrame();
+		}
+
+		stepping.clear();
+	}
+}
@@ -0,0 +1,156 @@
+package me.wtao.widget;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Message;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Delivers one callback per displayed frame to the animation engine of
+ * {@link SlidingDrawer}.<br>
+ * 
+ * Since JELLY_BEAN the frames are driven by {@link Choreographer}, so every
+ * animation step runs on a vsync pulse and is stamped with the frame time
+ * instead of {@link SystemClock#uptimeMillis()}, whatever the refresh rate of
+ * the display is. Older platforms fall back to a {@link Handler} loop aligned
+ * on {@link #FALLBACK_FRAME_DURATION} ms boundaries.<br>
+ * 
+ * A ticker is one-shot: {@link #scheduleFrame()} must be called again from
+ * the callback to get the next frame.
+ */
+abstract class FrameTicker {
+	/**
+	 * frame duration ({@value #FALLBACK_FRAME_DURATION} ms) of the
+	 * {@link Handler} loop used before JELLY_BEAN
+	 */
+	static final long FALLBACK_FRAME_DURATION = 1000 / 60;
+
+	/**
+	 * Callback invoked on each frame.
+	 */
+	static interface Callback {
+		/**
+		 * Invoked when a new frame starts.
+		 * 
+		 * @param frameTimeNanos
+		 *            The time in nanoseconds when the frame started being
+		 *            rendered, in the {@link SystemClock#uptimeMillis()} time
+		 *            base (multiplied by 1000000).
+		 */
+		public void onFrame(long frameTimeNanos);
+	}
+
+	protected final Callback mCallback;
+	private boolean mScheduled;
+
+	protected FrameTicker(Callback callback) {
+		mCallback = callback;
+	}
+
+	/**
+	 * Creates the best ticker available on the running platform. Must be
+	 * called on a thread which has a {@link android.os.Looper}, usually the UI
+	 * thread.
+	 */
+	static FrameTicker create(Callback callback) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+			return new ChoreographerTicker(callback);
+		}
+		return new HandlerTicker(callback);
+	}
+
+	/**
+	 * Requests a callback on the next frame, does nothing if one is already
+	 * pending.
+	 */
+	final void scheduleFrame() {
+		if (!mScheduled) {
+			mScheduled = true;
+			onScheduleFrame();
+		}
+	}
+
+	/**
+	 * Removes the pending frame callback, if any.
+	 */
+	final void cancelFrame() {
+		if (mScheduled) {
+			mScheduled = false;
+			onCancelFrame();
+		}
+	}
+
+	final boolean isFrameScheduled() {
+		return mScheduled;
+	}
+
+	protected final void dispatchFrame(long frameTimeNanos) {
+		mScheduled = false;
+		mCallback.onFrame(frameTimeNanos);
+	}
+
+	protected abstract void onScheduleFrame();
+
+	protected abstract void onCancelFrame();
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private static class ChoreographerTicker extends FrameTicker implements
+			Choreographer.FrameCallback {
+		private final Choreographer mChoreographer = Choreographer
+				.getInstance();
+
+		ChoreographerTicker(Callback callback) {
+			super(callback);
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			dispatchFrame(frameTimeNanos);
+		}
+
+		@Override
+		protected void onScheduleFrame() {
+			mChoreographer.postFrameCallback(this);
+		}
+
+		@Override
+		protected void onCancelFrame() {
+			mChoreographer.removeFrameCallback(this);
+		}
+	}
+
+	private static class HandlerTicker extends FrameTicker {
+		private static final int MSG_FRAME = 1000;
+
+		private final Handler mHandler = new Handler() {
+			public void handleMessage(Message m) {
+				switch (m.what) {
+				case MSG_FRAME:
+					dispatchFrame(SystemClock.uptimeMillis() * 1000000L);
+					break;
+				}
+			}
+		};
+
+		HandlerTicker(Callback callback) {
+			super(callback);
+		}
+
+		@Override
+		protected void onScheduleFrame() {
+			// align on the next frame boundary, as the display would do
+			final long now = SystemClock.uptimeMillis();
+			final long next = now - now % FALLBACK_FRAME_DURATION
+					+ FALLBACK_FRAME_DURATION;
+			mHandler.sendMessageAtTime(mHandler.obtainMessage(MSG_FRAME), next);
+		}
+
+		@Override
+		protected void onCancelFrame() {
+			mHandler.removeMessages(MSG_FRAME);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package me.wtao.widget;
+
+/**
+ * Constant acceleration towards the target, the historical model of
+ * {@link SlidingDrawer}: position + v*t + 0.5*a*t*t.<br>
+ * The motion is over as soon as the handle reaches the target.
+ */
+public class GravityPhysics implements DrawerPhysics {
+	private final float mAcceleration;
+
+	/**
+	 * @param acceleration
+	 *            magnitude of the acceleration, in px/s/s
+	 */
+	public GravityPhysics(float acceleration) {
+		if (acceleration <= 0) {
+			throw new IllegalArgumentException(
+					"The acceleration should be positive.");
+		}
+		mAcceleration = acceleration;
+	}
+
+	@Override
+	public Trajectory createTrajectory(float start, float velocity,
+			float target) {
+		return new GravityTrajectory(start, velocity, target, mAcceleration);
+	}
+
+	private static class GravityTrajectory extends Trajectory {
+		private final float mVelocity;
+		private final float mAcceleration;
+
+		GravityTrajectory(float start, float velocity, float target,
+				float acceleration) {
+			super(start, target);
+
+			final float distance = target - start;
+			mVelocity = velocity; // px/s
+			mAcceleration = (distance < 0 ? -acceleration : acceleration); // px/s/s
+
+			// solve 0.5*a*t*t + v*t = distance, along the direction of a
+			final float u = (distance < 0 ? -velocity : velocity);
+			final double d = Math.abs(distance);
+			setDuration((float) ((-u + Math.sqrt(u * u + 2 * acceleration * d)) / acceleration));
+		}
+
+		@Override
+		protected float computePosition(float t) {
+			return getStart() + (mVelocity * t)
+					+ (0.5f * mAcceleration * t * t);
+		}
+
+		@Override
+		protected float computeVelocity(float t) {
+			return mVelocity + (mAcceleration * t);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package me.wtao.widget;
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.view.View;
+
+/**
+ * Renders the content from a hardware layer held for the duration of the
+ * motion, so that a heavy content is rendered once and then only composited
+ * on every frame. A content which already has a layer keeps it.
+ */
+@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+public class HardwareLayerStrategy implements ContentRenderStrategy {
+	/**
+	 * the layer was set by this strategy, and has to be removed at the end
+	 */
+	private boolean mLayerSet;
+	/**
+	 * estimated size of the layer set by this strategy
+	 */
+	private long mLayerSize;
+
+	@Override
+	public void onMotionStarted(SlidingDrawer drawer, View content) {
+		if (content.getLayerType() == View.LAYER_TYPE_NONE) {
+			content.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+			mLayerSet = true;
+			// a 32 bits texture
+			mLayerSize = 4L * content.getWidth() * content.getHeight();
+		}
+		if (content.getWindowToken() != null) {
+			// render it now rather than in the first frame
+			content.buildLayer();
+		}
+	}
+
+	@Override
+	public void warmUp(SlidingDrawer drawer, View content) {
+		// a layer held while closed would cost as much as the snapshot it
+		// replaces
+	}
+
+	@Override
+	public void draw(SlidingDrawer drawer, Canvas canvas, View content,
+			float left, float top) {
+		DirectDrawStrategy.drawAt(drawer, canvas, content, left, top);
+	}
+
+	@Override
+	public void onMotionEnded(SlidingDrawer drawer, View content,
+			boolean opened) {
+		release(drawer, content);
+	}
+
+	@Override
+	public void release(SlidingDrawer drawer, View content) {
+		if (mLayerSet) {
+			mLayerSet = false;
+			mLayerSize = 0;
+			content.setLayerType(View.LAYER_TYPE_NONE, null);
+		}
+	}
+
+	@Override
+	public long getRetainedSize() {
+		return mLayerSize;
+	}
+}
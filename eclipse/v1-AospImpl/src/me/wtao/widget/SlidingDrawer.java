@@ -19,20 +19,26 @@ package me.wtao.widget;
 import java.util.ArrayList;
 
 import me.wtao.utils.Logcat;
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
-import android.os.Handler;
-import android.os.Message;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.SoundEffectConstants;
-import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewStub;
+import android.view.WindowManager;
 import android.view.accessibility.AccessibilityEvent;
 
 /**
@@ -74,6 +80,10 @@ import android.view.accessibility.AccessibilityEvent;
  * &lt;/SlidingDrawer&gt;
  * </pre>
  * 
+ * The content may be a {@link ViewStub}, inflated only when the drawer is
+ * about to be opened for the first time, so that a drawer which is never
+ * opened never pays for its content.<br>
+ * 
  * @see R.styleable#SlidingDrawer_content<br>
  * @see R.styleable#SlidingDrawer_handle<br>
  * @see R.styleable#SlidingDrawer_topOffset<br>
@@ -90,6 +100,25 @@ public class SlidingDrawer extends ViewGroup {
 	public static final int ORIENTATION_LEFT_TO_RIGHT = 0x04;
 	public static final int ORIENTATION_RIGHT_TO_LEFT = 0x08;
 
+	/**
+	 * the drawer is at rest, opened or closed
+	 * 
+	 * @see OnDrawerProgressListener
+	 */
+	public static final int STATE_IDLE = 0;
+	/**
+	 * the user is dragging the handle
+	 * 
+	 * @see OnDrawerProgressListener
+	 */
+	public static final int STATE_DRAGGING = 1;
+	/**
+	 * the drawer is animated to its rest position
+	 * 
+	 * @see OnDrawerProgressListener
+	 */
+	public static final int STATE_SETTLING = 2;
+
 	private static Logcat sLogcat = new Logcat();
 
 	/**
@@ -109,15 +138,6 @@ public class SlidingDrawer extends ViewGroup {
 	 * @see #VELOCITY_UNITS
 	 */
 	private static final float MAXIMUM_TAP_VELOCITY = 100.0f;
-	/**
-	 * max value ({@value #MAXIMUM_MINOR_VELOCITY} px/s) of secondary subvector.
-	 * in the horizontal direction it's subvector Y, while in the vertical
-	 * direction subvector X.<br>
-	 * Velocity unit is one pixel per second.
-	 * 
-	 * @see #VELOCITY_UNITS
-	 */
-	private static final float MAXIMUM_MINOR_VELOCITY = 150.0f;
 	/**
 	 * max value ({@value #MAXIMUM_MAJOR_VELOCITY} px/s) of main subvector. in
 	 * the horizontal direction it's subvector X, while in the vertical
@@ -140,15 +160,41 @@ public class SlidingDrawer extends ViewGroup {
 	 * We set VELOCITY_UNITS as {@value #VELOCITY_UNITS}, that is one pixel per
 	 * second.
 	 * 
-	 * @see #incrementAnimation()
-	 * @see android.view.VelocityTracker#computeCurrentVelocity(int, float)
+	 * @see #computeVelocity()
+	 * @see VelocityEstimator#computeVelocity()
 	 */
 	private static final int VELOCITY_UNITS = 1000;
-	private static final int MSG_ANIMATE = 1000;
 	/**
-	 * animation update rate is {@value #ANIMATION_FRAME_DURATION} fps
+	 * time constant ({@value #CARRIED_MOMENTUM_DECAY} ms) of the velocity kept
+	 * by a handle grabbed mid-flight, the longer it is held the more the
+	 * tracked velocity takes over
+	 * 
+	 * @see #setInterruptible(boolean)
+	 */
+	private static final int CARRIED_MOMENTUM_DECAY = 100;
+	/**
+	 * max distance ({@value #MAXIMUM_PREDICTION_DISTANCE} dp) the handle is
+	 * moved ahead of the finger when the touch position is predicted
+	 * 
+	 * @see #setTouchPrediction(int)
+	 */
+	private static final int MAXIMUM_PREDICTION_DISTANCE = 24;
+	/**
+	 * default color of the placeholder strip drawn until the content is
+	 * inflated
+	 * 
+	 * @see #setContentPlaceholderColor(int)
+	 */
+	private static final int DEFAULT_PLACEHOLDER_COLOR = 0xFF303030;
+
+	/**
+	 * steps of the warm-up of the closed drawer, one per idle callback
+	 * 
+	 * @see ContentWarmUp
 	 */
-	private static final int ANIMATION_FRAME_DURATION = 1000 / 60;
+	private static final int WARM_UP_MEASURE = 0;
+	private static final int WARM_UP_LAYOUT = 1;
+	private static final int WARM_UP_SNAPSHOT = 2;
 
 	private static final int EXPANDED_FULL_OPEN = -10001;
 	private static final int COLLAPSED_FULL_CLOSED = -10002;
@@ -161,10 +207,51 @@ public class SlidingDrawer extends ViewGroup {
 
 	private final Rect mFrame = new Rect();
 	private final Rect mInvalidate = new Rect();
+	/**
+	 * merges the regions invalidated by the moves of a frame
+	 */
+	private final DirtyRegionCoalescer mDirtyRegion = new DirtyRegionCoalescer();
+	/**
+	 * part of the content inside the drawer while it is moving, in the
+	 * coordinates of the drawer
+	 * 
+	 * @see #computeContentSlice()
+	 */
+	private final Rect mContentSlice = new Rect();
+	private final Rect mContentDirty = new Rect();
+	/**
+	 * where the content is drawn while the drawer is moving
+	 */
+	private float mContentLeft;
+	private float mContentTop;
+	/**
+	 * measure specs of the content, computed by
+	 * {@link #onMeasure(int, int)}
+	 */
+	private int mContentWidthMeasureSpec;
+	private int mContentHeightMeasureSpec;
+	/**
+	 * specs the content was last measured with
+	 */
+	private int mLastContentWidthMeasureSpec;
+	private int mLastContentHeightMeasureSpec;
+	/**
+	 * the content was measured and not laid out since, its layout request is
+	 * only cleared by its layout
+	 */
+	private boolean mContentMeasured;
+	/**
+	 * the layout of the content was deferred while the drawer is closed
+	 */
+	private boolean mContentLayoutPending;
 	private boolean mTracking;
 	private boolean mLocked;
 
-	private VelocityTracker mVelocityTracker;
+	/**
+	 * tracks the velocity along the axis of the drawer, reused by every
+	 * gesture
+	 */
+	private final VelocityEstimator mVelocityEstimator = new VelocityEstimator();
 
 	private boolean mVertical;
 	private boolean mExpanded;
@@ -178,18 +265,195 @@ public class SlidingDrawer extends ViewGroup {
 	private OnDrawerOpenListener mOnDrawerOpenListener;
 	private OnDrawerCloseListener mOnDrawerCloseListener;
 	private OnDrawerScrollListener mOnDrawerScrollListener;
+	/**
+	 * progress listeners, copied on add and remove so that a dispatch never
+	 * allocates
+	 */
+	private OnDrawerProgressListener[] mProgressListeners = new OnDrawerProgressListener[0];
+	/**
+	 * the progress changed since it was last dispatched
+	 */
+	private boolean mProgressChanged;
+	/**
+	 * the drawer is being stepped by its frame
+	 */
+	private boolean mInFrame;
+	/**
+	 * a frame was requested since the last one
+	 */
+	private boolean mFrameRequested;
+	/**
+	 * time (ms) of the change which requested the next frame, the time of the
+	 * input while tracking, so that a stall doesn't delay it
+	 */
+	private long mFrameRequestTime;
+	/**
+	 * time (ms) of the last frame, 0 before the first one
+	 */
+	private long mFrameTime;
+	/**
+	 * the last frame was requested within a frame of the previous one
+	 * 
+	 * @see #isFrameContinued()
+	 */
+	private boolean mFrameContinued;
+	/**
+	 * time (ms) of the newest event of the drag
+	 */
+	private long mLastInputTime;
+	/**
+	 * @see #getStatePublisher()
+	 */
+	private DrawerStatePublisher mStatePublisher;
 
-	private final Handler mHandler = new SlidingHandler();
-	private float mAnimatedAcceleration;
-	private float mAnimatedVelocity;
-	private float mAnimationPosition;
-	private long mAnimationLastTime;
-	private long mCurrentAnimationTime;
+	/**
+	 * animation engine shared by the drawers of the window, steps
+	 * {@link #stepFrame(long)} once per displayed frame, null while detached
+	 * 
+	 * @see FrameCoordinator
+	 */
+	private FrameCoordinator mFrameCoordinator;
+	/**
+	 * physics model of the animations, {@link #mDefaultPhysics} unless set
+	 * 
+	 * @see #setDrawerPhysics(DrawerPhysics)
+	 */
+	private DrawerPhysics mPhysics;
+	private final DrawerPhysics mDefaultPhysics;
+	/**
+	 * trajectory of the running animation, computed up front by
+	 * {@link #performFling(int, float, boolean)}
+	 */
+	private DrawerPhysics.Trajectory mTrajectory;
+	/**
+	 * target of the running animation, true if opening
+	 */
+	private boolean mAnimatingOpen;
+	/**
+	 * time (ms) when the running animation started, in the
+	 * {@link SystemClock#uptimeMillis()} time base
+	 */
+	private long mAnimationStartTime;
+	/**
+	 * velocity of the animation taken over by the current drag, in the unit of
+	 * {@link #computeVelocity()}
+	 * 
+	 * @see #setInterruptible(boolean)
+	 */
+	private final CarriedMomentum mCarriedMomentum = new CarriedMomentum(
+			CARRIED_MOMENTUM_DECAY);
+	/**
+	 * frames are suspended while the drawer is detached or its window hidden
+	 */
+	private boolean mFramesSuspended = true;
+	/**
+	 * time (ms) when the frames were suspended
+	 */
+	private long mSuspendTime;
+	/**
+	 * frames the animation didn't run while suspended
+	 * 
+	 * @see #getSuppressedFrameCount()
+	 */
+	private int mSuppressedFrameCount;
+	/**
+	 * duration (ms) of a frame of the display
+	 */
+	private float mFrameDuration = FrameTicker.FALLBACK_FRAME_DURATION;
+	/**
+	 * time (ms) of the last step of the running animation, 0 before the first
+	 */
+	private long mLastAnimationFrameTime;
+	/**
+	 * frames the animation skipped over, it stepped straight to the current
+	 * time
+	 * 
+	 * @see #getSkippedFrameCount()
+	 */
+	private int mSkippedFrameCount;
 	private int mTouchDelta;
 	private int mTouchOffset;
 	private boolean mAnimating;
 	private boolean mAllowSingleTap;
 	private boolean mAnimateOnClick;
+	private boolean mInterruptible;
+	private boolean mBatchedInput;
+	/**
+	 * newest drag position not applied yet, if {@link #mMovePending}
+	 * 
+	 * @see #setBatchedInput(boolean)
+	 */
+	private float mPendingMovePosition;
+	private boolean mMovePending;
+	/**
+	 * how far (ms) ahead the touch position is predicted, 0 if not
+	 * 
+	 * @see #setTouchPrediction(int)
+	 */
+	private int mTouchPrediction;
+	/**
+	 * handle and content are moved by their translation properties, instead
+	 * of offsets and invalidated regions
+	 * 
+	 * @see #setTranslationMovement(boolean)
+	 */
+	private boolean mTranslationMovement;
+	/**
+	 * @see #setAsyncInflation(boolean)
+	 */
+	private boolean mAsyncInflation;
+	private AsyncContentInflater mAsyncInflater;
+	/**
+	 * pending inflation of the content stub, null if none
+	 */
+	private AsyncContentInflater.Request mInflateRequest;
+	/**
+	 * warms the closed drawer up while the main looper is idle, null if none
+	 */
+	private ContentWarmUp mWarmUp;
+	/**
+	 * the content was warmed up, or prepared by a motion, since it was set
+	 */
+	private boolean mWarmedUp;
+	/**
+	 * the stub the content was inflated from, null if none
+	 */
+	private ViewStub mContentStub;
+	/**
+	 * @see #setContentReleasable(boolean)
+	 */
+	private boolean mContentReleasable;
+	/**
+	 * receives the memory pressure since ICE_CREAM_SANDWICH, null if not
+	 * registered
+	 */
+	private TrimMemoryCallbacks mTrimMemoryCallbacks;
+	/**
+	 * paints the place of the content until it is inflated
+	 */
+	private final Paint mPlaceholderPaint = new Paint();
+	/**
+	 * picks {@link #mRenderStrategy} each time the drawer starts moving
+	 * 
+	 * @see #setContentRenderPolicy(ContentRenderStrategy.Policy)
+	 */
+	private ContentRenderStrategy.Policy mRenderPolicy = new DefaultRenderPolicy();
+	/**
+	 * renders the content while the drawer is moving, kept at rest with what
+	 * it may retain for the next motion
+	 */
+	private ContentRenderStrategy mRenderStrategy;
+	/**
+	 * between {@link ContentRenderStrategy#onMotionStarted(SlidingDrawer, View)}
+	 * and {@link ContentRenderStrategy#onMotionEnded(SlidingDrawer, View, boolean)}
+	 */
+	private boolean mContentRendering;
+	/**
+	 * incremented each time the content is invalidated or requests a layout
+	 * 
+	 * @see #getContentGeneration()
+	 */
+	private int mContentGeneration;
 
 	/**
 	 * ceiling of {@link android.util.DisplayMetrics.density} *
@@ -205,13 +469,6 @@ public class SlidingDrawer extends ViewGroup {
 	 * @see #SlidingDrawer(Context, AttributeSet, int)
 	 */
 	private final int mMaximumTapVelocity;
-	/**
-	 * ceiling of {@link android.util.DisplayMetrics.density} *
-	 * {@link #MAXIMUM_MINOR_VELOCITY}
-	 * 
-	 * @see #SlidingDrawer(Context, AttributeSet, int)
-	 */
-	private final int mMaximumMinorVelocity;
 	/**
 	 * ceiling of {@link android.util.DisplayMetrics.density} *
 	 * {@link #MAXIMUM_MAJOR_VELOCITY}
@@ -233,6 +490,13 @@ public class SlidingDrawer extends ViewGroup {
 	 * @see #SlidingDrawer(Context, AttributeSet, int)
 	 */
 	private final int mVelocityUnits;
+	/**
+	 * ceiling of {@link android.util.DisplayMetrics.density} *
+	 * {@link #MAXIMUM_PREDICTION_DISTANCE}
+	 * 
+	 * @see #SlidingDrawer(Context, AttributeSet, int)
+	 */
+	private final int mMaximumPredictionDistance;
 
 	/**
 	 * Callback invoked when the drawer is opened.
@@ -282,6 +546,30 @@ public class SlidingDrawer extends ViewGroup {
 		public void onScrollEnded();
 	}
 
+	/**
+	 * Callback invoked at most once per frame while the drawer moves, with how
+	 * far it is opened.
+	 */
+	public static interface OnDrawerProgressListener {
+		/**
+		 * Invoked when the drawer moved or changed state since the previous
+		 * frame.
+		 * 
+		 * @param drawer
+		 *            the drawer which moved
+		 * @param fraction
+		 *            how far the drawer is opened, from 0 closed to 1 opened
+		 * @param velocity
+		 *            speed of the fraction per second, positive when opening
+		 * @param state
+		 *            one of {@link SlidingDrawer#STATE_IDLE},
+		 *            {@link SlidingDrawer#STATE_DRAGGING} or
+		 *            {@link SlidingDrawer#STATE_SETTLING}
+		 */
+		public void onDrawerProgress(SlidingDrawer drawer, float fraction,
+				float velocity, int state);
+	}
+
 	/**
 	 * Creates a new SlidingDrawer from a specified set of attributes defined in
 	 * XML.
@@ -362,13 +650,19 @@ public class SlidingDrawer extends ViewGroup {
 		final float density = getResources().getDisplayMetrics().density;
 		mTapThreshold = (int) (TAP_THRESHOLD * density + 0.5f);
 		mMaximumTapVelocity = (int) (MAXIMUM_TAP_VELOCITY * density + 0.5f);
-		mMaximumMinorVelocity = (int) (MAXIMUM_MINOR_VELOCITY * density + 0.5f);
 		mMaximumMajorVelocity = (int) (MAXIMUM_MAJOR_VELOCITY * density + 0.5f);
 		mMaximumAcceleration = (int) (MAXIMUM_ACCELERATION * density + 0.5f);
 		mVelocityUnits = (int) (VELOCITY_UNITS * density + 0.5f);
+		mMaximumPredictionDistance = (int) (MAXIMUM_PREDICTION_DISTANCE
+				* density + 0.5f);
 
 		a.recycle();
 
+		mDefaultPhysics = new GravityPhysics(mMaximumAcceleration);
+		mPhysics = mDefaultPhysics;
+
+		mPlaceholderPaint.setColor(DEFAULT_PLACEHOLDER_COLOR);
+
 		setAlwaysDrawnWithCacheEnabled(false);
 
 		sLogcat.setOn(); // TODO log switch
@@ -454,7 +748,7 @@ public class SlidingDrawer extends ViewGroup {
 			scrollListener.onScrollStarted();
 		}
 
-		animateClose(isVertical() ? mHandle.getTop() : mHandle.getLeft());
+		animateClose((int) getHandlePosition());
 
 		if (scrollListener != null) {
 			scrollListener.onScrollEnded();
@@ -477,7 +771,7 @@ public class SlidingDrawer extends ViewGroup {
 			scrollListener.onScrollStarted();
 		}
 
-		animateOpen(isVertical() ? mHandle.getTop() : mHandle.getLeft());
+		animateOpen((int) getHandlePosition());
 
 		sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
 
@@ -543,109 +837,557 @@ public class SlidingDrawer extends ViewGroup {
 	}
 
 	/**
-	 * Returns the handle of the drawer.
+	 * Adds a listener that receives the progress of the drawer, once per frame
+	 * while it is dragged or animated, and once when it comes to rest.
 	 * 
-	 * @return The View reprenseting the handle of the drawer, identified by the
-	 *         "handle" id in XML.
+	 * @param listener
+	 *            The listener to be notified of the progress.
 	 */
-	public View getHandle() {
-		return mHandle;
+	public void addOnDrawerProgressListener(OnDrawerProgressListener listener) {
+		final OnDrawerProgressListener[] listeners = mProgressListeners;
+		for (OnDrawerProgressListener l : listeners) {
+			if (l == listener) {
+				return;
+			}
+		}
+
+		final OnDrawerProgressListener[] newListeners = new OnDrawerProgressListener[listeners.length + 1];
+		System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+		newListeners[listeners.length] = listener;
+		mProgressListeners = newListeners;
 	}
 
 	/**
-	 * Returns the content of the drawer.
+	 * Removes a listener added by
+	 * {@link #addOnDrawerProgressListener(OnDrawerProgressListener)}.
 	 * 
-	 * @return The View reprenseting the content of the drawer, identified by
-	 *         the "content" id in XML.
+	 * @param listener
+	 *            The listener to remove.
 	 */
-	public View getContent() {
-		return mContent;
+	public void removeOnDrawerProgressListener(OnDrawerProgressListener listener) {
+		final OnDrawerProgressListener[] listeners = mProgressListeners;
+		for (int i = 0; i != listeners.length; ++i) {
+			if (listeners[i] == listener) {
+				final OnDrawerProgressListener[] newListeners = new OnDrawerProgressListener[listeners.length - 1];
+				System.arraycopy(listeners, 0, newListeners, 0, i);
+				System.arraycopy(listeners, i + 1, newListeners, i,
+						listeners.length - i - 1);
+				mProgressListeners = newListeners;
+				return;
+			}
+		}
 	}
 
 	/**
-	 * Unlocks the SlidingDrawer so that touch events are processed.
+	 * Returns the publisher of the state of the drawer, fed with its progress
+	 * once per frame. Subscribers receive the states on the executor of their
+	 * choice and only the latest one when they can't keep up, the drawer never
+	 * waits for them.<br>
+	 * The publisher lives as long as the drawer, across detach and attach,
+	 * until it is {@link DrawerStatePublisher#close() closed}: the drawer stops
+	 * feeding it then, and the next call returns a new one.
 	 * 
-	 * @see #lock()
+	 * @return The publisher of the state, created on first call.
+	 * @see #addOnDrawerProgressListener(OnDrawerProgressListener)
 	 */
-	public void unlock() {
-		mLocked = false;
+	public DrawerStatePublisher getStatePublisher() {
+		if (mStatePublisher == null || mStatePublisher.isClosed()) {
+			if (mStatePublisher != null) {
+				removeOnDrawerProgressListener(mStatePublisher);
+			}
+			mStatePublisher = new DrawerStatePublisher();
+			addOnDrawerProgressListener(mStatePublisher);
+		}
+		return mStatePublisher;
 	}
 
 	/**
-	 * Locks the SlidingDrawer so that touch events are ignores.
+	 * Returns how far the drawer is opened.
 	 * 
-	 * @see #unlock()
+	 * @return The fraction, from 0 closed to 1 opened.
 	 */
-	public void lock() {
-		mLocked = true;
+	public float getOpenFraction() {
+		final float closed = getClosedPosition();
+		final float range = getOpenedPosition() - closed;
+		if (range == 0) {
+			return (mExpanded ? 1 : 0);
+		}
+		final float fraction = (getHandlePosition() - closed) / range;
+		return Math.max(0, Math.min(fraction, 1));
 	}
 
 	/**
-	 * Indicates whether the drawer is currently fully opened.
+	 * Returns the state of the drawer.
 	 * 
-	 * @return True if the drawer is opened, false otherwise.
+	 * @return One of {@link #STATE_IDLE}, {@link #STATE_DRAGGING} or
+	 *         {@link #STATE_SETTLING}.
 	 */
-	public boolean isOpened() {
-		return mExpanded;
+	public int getState() {
+		if (mTracking) {
+			return STATE_DRAGGING;
+		}
+		if (mAnimating && mTrajectory != null) {
+			return STATE_SETTLING;
+		}
+		return STATE_IDLE;
 	}
 
 	/**
-	 * Indicates whether the drawer is scrolling or flinging.
+	 * Sets the physics model which moves the handle when the drawer is flung
+	 * or animated, f.e. a {@link SpringPhysics} or a {@link DecayPhysics}
+	 * tuned for the device class. Takes effect on the next fling.
 	 * 
-	 * @return True if the drawer is scroller or flinging, false otherwise.
+	 * @param physics
+	 *            The model to use, or null to restore the default
+	 *            {@link GravityPhysics}.
 	 */
-	public boolean isMoving() {
-		return mTracking || mAnimating;
+	public void setDrawerPhysics(DrawerPhysics physics) {
+		mPhysics = (physics != null ? physics : mDefaultPhysics);
 	}
 
-	@Override
-	public boolean onInterceptTouchEvent(MotionEvent event) {
-		sLogcat.v("entry");
+	/**
+	 * Returns the physics model which moves the handle when the drawer is
+	 * flung or animated.
+	 * 
+	 * @return The model in use, never null.
+	 */
+	public DrawerPhysics getDrawerPhysics() {
+		return mPhysics;
+	}
 
-		if (mLocked) {
-			sLogcat.v("exit: ", false, " locked");
-			return false;
-		}
+	/**
+	 * Sets whether grabbing the handle while the drawer is settling takes over
+	 * the running animation. If so, the drag starts from the current position
+	 * and velocity of the handle, without snapping it back nor preparing the
+	 * content again, and releasing it continues from the combined momentum.
+	 * Otherwise the animation is simply dropped. Default is false.
+	 * 
+	 * @param interruptible
+	 *            true to take over running animations
+	 */
+	public void setInterruptible(boolean interruptible) {
+		mInterruptible = interruptible;
+	}
 
-		final int action = event.getAction();
+	/**
+	 * Indicates whether grabbing the handle while the drawer is settling takes
+	 * over the running animation.
+	 * 
+	 * @return True if running animations are taken over, false otherwise.
+	 * @see #setInterruptible(boolean)
+	 */
+	public boolean isInterruptible() {
+		return mInterruptible;
+	}
 
-		float x = event.getX();
-		float y = event.getY();
+	/**
+	 * Sets whether drag events are batched per frame. If so, every sample,
+	 * historical ones included, still feeds the velocity estimation, but the
+	 * handle is moved and {@link OnDrawerScrollListener#onScroll(boolean)} is
+	 * invoked at most once per frame, to the newest position. It saves much
+	 * of the work of dragging on touch panels reporting several moves per
+	 * frame. Default is false.
+	 * 
+	 * @param batchedInput
+	 *            true to move the handle once per frame
+	 */
+	public void setBatchedInput(boolean batchedInput) {
+		mBatchedInput = batchedInput;
+		if (!batchedInput) {
+			flushPendingMove();
+		}
+	}
 
-		final Rect frame = mFrame;
-		final View handle = mHandle;
+	/**
+	 * Indicates whether drag events are batched per frame.
+	 * 
+	 * @return True if the handle is moved at most once per frame, false
+	 *         otherwise.
+	 * @see #setBatchedInput(boolean)
+	 */
+	public boolean isBatchedInput() {
+		return mBatchedInput;
+	}
 
-		handle.getHitRect(frame);
-		final boolean hit = frame.contains((int) x, (int) y);
-		if (!mTracking && !hit) {
-			sLogcat.v("exit: ", false, " tracking ? ", mTracking, ", hit ? ",
-					hit);
-			return false;
+	/**
+	 * Sets how far ahead the finger position is predicted when dragging, to
+	 * cut the latency between the touch and its display. The position is
+	 * extrapolated from the samples gathered for the velocity, never more than
+	 * {@value #MAXIMUM_PREDICTION_DISTANCE} dp ahead of the finger nor out of
+	 * the range of the handle. Typically the input-to-display latency of the
+	 * device, 0 to disable the prediction. Default is 0.
+	 * 
+	 * @param millis
+	 *            time (ms) ahead of the touch events to predict the position
+	 *            at
+	 */
+	public void setTouchPrediction(int millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException(
+					"The touch prediction should not be negative.");
 		}
+		mTouchPrediction = millis;
+	}
 
-		if (action == MotionEvent.ACTION_DOWN) {
-			mTracking = true;
-
-			handle.setPressed(true);
-			// Must be called before prepareTracking()
-			prepareContent();
+	/**
+	 * Returns how far ahead the finger position is predicted when dragging.
+	 * 
+	 * @return The time (ms) ahead of the touch events, 0 if disabled.
+	 * @see #setTouchPrediction(int)
+	 */
+	public int getTouchPrediction() {
+		return mTouchPrediction;
+	}
 
-			// Must be called after prepareContent()
-			if (mOnDrawerScrollListener != null) {
-				mOnDrawerScrollListener.onScrollStarted();
-			}
+	/**
+	 * Sets whether the handle and the content are moved by their float
+	 * translation properties while the drawer is dragged or animated, instead
+	 * of whole pixel offsets, invalidated regions and the content being drawn
+	 * again at its new place. Moving then only updates render properties,
+	 * without recording the display lists again, and slow drags get sub-pixel
+	 * smooth. Only available since HONEYCOMB, ignored before. Should not be
+	 * changed while the drawer is moving. Default is false.
+	 * 
+	 * @param translationMovement
+	 *            true to move by translation properties
+	 */
+	public void setTranslationMovement(boolean translationMovement) {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.HONEYCOMB) {
+			return;
+		}
 
-			mTouchDelta = 0;
-			if (mVertical) {
-				final int top = mHandle.getTop();
-				mTouchOffset = (int) y - top;
-				prepareTracking(top);
-			} else {
-				final int left = mHandle.getLeft();
-				mTouchOffset = (int) x - left;
-				prepareTracking(left);
-			}
-			mVelocityTracker.addMovement(event);
+		if (mTranslationMovement && !translationMovement) {
+			resetTranslation();
+		}
+		mTranslationMovement = translationMovement;
+	}
+
+	/**
+	 * Indicates whether the handle and the content are moved by their
+	 * translation properties.
+	 * 
+	 * @return True if moved by translation properties, false otherwise.
+	 * @see #setTranslationMovement(boolean)
+	 */
+	public boolean isTranslationMovement() {
+		return mTranslationMovement;
+	}
+
+	/**
+	 * Sets whether a {@link ViewStub} content is inflated on a background
+	 * thread as soon as the handle is touched, instead of on the UI thread
+	 * during the gesture. The drawer shows a placeholder strip where the
+	 * content goes until it is attached. Opening the drawer without a motion
+	 * still inflates it on the UI thread. Default is false.
+	 * 
+	 * @param asyncInflation
+	 *            true to inflate the content stub in the background
+	 * @see #setContentPlaceholderColor(int)
+	 */
+	public void setAsyncInflation(boolean asyncInflation) {
+		mAsyncInflation = asyncInflation;
+	}
+
+	/**
+	 * Indicates whether a content stub is inflated in the background.
+	 * 
+	 * @return True if inflated in the background, false otherwise.
+	 * @see #setAsyncInflation(boolean)
+	 */
+	public boolean isAsyncInflation() {
+		return mAsyncInflation;
+	}
+
+	/**
+	 * Sets whether the content inflated from a {@link ViewStub} is dropped
+	 * when the system runs critically low on memory while the drawer is
+	 * closed. The stub takes its place again and the content is inflated
+	 * anew on the next open, views of the previous content must not be held
+	 * then. Snapshots of the content are dropped on memory pressure anyway.
+	 * Default is false.
+	 * 
+	 * @param releasable
+	 *            true to drop the content on critical memory pressure
+	 */
+	public void setContentReleasable(boolean releasable) {
+		mContentReleasable = releasable;
+	}
+
+	/**
+	 * Indicates whether the content may be dropped on critical memory
+	 * pressure.
+	 * 
+	 * @return True if the content may be dropped, false otherwise.
+	 * @see #setContentReleasable(boolean)
+	 */
+	public boolean isContentReleasable() {
+		return mContentReleasable;
+	}
+
+	/**
+	 * Returns the number of bytes the drawer holds to render its content on
+	 * motion, f.e. a snapshot kept for the next gesture or a hardware layer.
+	 * The views of the content themselves aren't accounted.
+	 * 
+	 * @return The number of bytes held.
+	 */
+	public long getRetainedBytes() {
+		return (mRenderStrategy != null ? mRenderStrategy.getRetainedSize() : 0);
+	}
+
+	/**
+	 * Sets the color of the placeholder strip shown while the content is
+	 * inflated in the background.
+	 * 
+	 * @param color
+	 *            the color of the placeholder
+	 * @see #setAsyncInflation(boolean)
+	 */
+	public void setContentPlaceholderColor(int color) {
+		mPlaceholderPaint.setColor(color);
+		if (mContent instanceof ViewStub) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Sets the policy picking how the content is rendered while the drawer is
+	 * dragged or animated: from a software bitmap, from a hardware layer held
+	 * for the duration of the motion, or drawn directly. The policy is asked
+	 * each time the drawer starts moving; a policy always returning the same
+	 * strategy forces it. Not involved with
+	 * {@link #setTranslationMovement(boolean) translation movement}, where the
+	 * content is drawn as is.
+	 * 
+	 * @param policy
+	 *            The policy to use, or null to restore the
+	 *            {@link DefaultRenderPolicy}.
+	 */
+	public void setContentRenderPolicy(ContentRenderStrategy.Policy policy) {
+		mRenderPolicy = (policy != null ? policy : new DefaultRenderPolicy());
+		if (!mContentRendering) {
+			releaseContentRendering();
+		}
+	}
+
+	/**
+	 * Returns the generation of the content, incremented each time the content
+	 * or one of its descendants is invalidated or requests a layout. A
+	 * snapshot drawn at a generation is up to date as long as the generation
+	 * stays the same.
+	 * 
+	 * @return The current generation of the content.
+	 * @see #invalidateContentSnapshot()
+	 */
+	public int getContentGeneration() {
+		return mContentGeneration;
+	}
+
+	/**
+	 * Forces the content to be rendered again on the next motion, for changes
+	 * the drawer can't notice, f.e. on the content itself while it is hidden.
+	 */
+	public void invalidateContentSnapshot() {
+		++mContentGeneration;
+	}
+
+	/**
+	 * Returns the number of animation frames which were not run because the
+	 * drawer was detached or its window hidden, for debugging: a hidden
+	 * drawer doesn't use any frame.
+	 * 
+	 * @return The number of suppressed frames.
+	 */
+	public int getSuppressedFrameCount() {
+		return mSuppressedFrameCount;
+	}
+
+	/**
+	 * Returns the duration of a frame of the display the drawer is attached
+	 * to, the budget of the rendering of a frame.
+	 * 
+	 * @return The duration (ms) of a frame, the one of a 60 Hz display until
+	 *         attached.
+	 */
+	public float getFrameDuration() {
+		return mFrameDuration;
+	}
+
+	/**
+	 * @return time (ms) of the last frame, in the
+	 *         {@link SystemClock#uptimeMillis()} time base, 0 before the first
+	 *         one
+	 */
+	long getFrameTime() {
+		return mFrameTime;
+	}
+
+	/**
+	 * @return true if the last frame was requested within a frame of the
+	 *         previous one, the interval between them measures the rendering
+	 *         then, otherwise the drawer was idle in between
+	 */
+	boolean isFrameContinued() {
+		return mFrameContinued;
+	}
+
+	/**
+	 * Returns the number of frames the animation skipped over after the main
+	 * thread stalled, for debugging. The animation never catches up frame by
+	 * frame, it steps once per displayed frame, straight to the position at
+	 * the time of that frame.
+	 * 
+	 * @return The number of skipped frames.
+	 */
+	public int getSkippedFrameCount() {
+		return mSkippedFrameCount;
+	}
+
+	/**
+	 * Returns the number of invalidations merged into another one since the
+	 * last reset, for debugging: the moves of the handle within a frame are
+	 * invalidated once, at the frame.
+	 * 
+	 * @return The number of merged invalidations.
+	 * @see #resetInvalidationCounters()
+	 */
+	public int getMergedInvalidationCount() {
+		return mDirtyRegion.getMergedCount();
+	}
+
+	/**
+	 * Returns the number of invalidations issued for the moves of the handle
+	 * since the last reset, for debugging.
+	 * 
+	 * @return The number of issued invalidations.
+	 */
+	public int getIssuedInvalidationCount() {
+		return mDirtyRegion.getInvalidateCount();
+	}
+
+	/**
+	 * Resets the invalidation counters.
+	 */
+	public void resetInvalidationCounters() {
+		mDirtyRegion.resetCounters();
+	}
+
+	/**
+	 * Returns the handle of the drawer.
+	 * 
+	 * @return The View reprenseting the handle of the drawer, identified by the
+	 *         "handle" id in XML.
+	 */
+	public View getHandle() {
+		return mHandle;
+	}
+
+	/**
+	 * Returns the content of the drawer.
+	 * 
+	 * @return The View reprenseting the content of the drawer, identified by
+	 *         the "content" id in XML, still a {@link ViewStub} if it wasn't
+	 *         inflated yet.
+	 */
+	public View getContent() {
+		return mContent;
+	}
+
+	/**
+	 * Unlocks the SlidingDrawer so that touch events are processed.
+	 * 
+	 * @see #lock()
+	 */
+	public void unlock() {
+		mLocked = false;
+	}
+
+	/**
+	 * Locks the SlidingDrawer so that touch events are ignores.
+	 * 
+	 * @see #unlock()
+	 */
+	public void lock() {
+		mLocked = true;
+	}
+
+	/**
+	 * Indicates whether the drawer is currently fully opened.
+	 * 
+	 * @return True if the drawer is opened, false otherwise.
+	 */
+	public boolean isOpened() {
+		return mExpanded;
+	}
+
+	/**
+	 * Indicates whether the drawer is scrolling or flinging.
+	 * 
+	 * @return True if the drawer is scroller or flinging, false otherwise.
+	 */
+	public boolean isMoving() {
+		return mTracking || mAnimating;
+	}
+
+	@Override
+	public boolean dispatchTouchEvent(MotionEvent event) {
+		if (event.getAction() == MotionEvent.ACTION_DOWN) {
+			// the user is busy, the warm-up would compete with the touch
+			cancelWarmUp();
+		}
+		return super.dispatchTouchEvent(event);
+	}
+
+	@Override
+	public boolean onInterceptTouchEvent(MotionEvent event) {
+		sLogcat.v("entry");
+
+		if (mLocked) {
+			sLogcat.v("exit: ", false, " locked");
+			return false;
+		}
+
+		final int action = event.getAction();
+
+		float x = event.getX();
+		float y = event.getY();
+
+		final Rect frame = mFrame;
+		final View handle = mHandle;
+
+		handle.getHitRect(frame);
+		final boolean hit = frame.contains((int) x, (int) y);
+		if (!mTracking && !hit) {
+			sLogcat.v("exit: ", false, " tracking ? ", mTracking, ", hit ? ",
+					hit);
+			return false;
+		}
+
+		if (action == MotionEvent.ACTION_DOWN) {
+			// too late to warm up, the content is prepared right now
+			cancelWarmUp();
+			mTracking = true;
+
+			handle.setPressed(true);
+			// Must be called before prepareTracking()
+			prepareContent();
+
+			// Must be called after prepareContent()
+			if (mOnDrawerScrollListener != null) {
+				mOnDrawerScrollListener.onScrollStarted();
+			}
+
+			mTouchDelta = 0;
+			if (mVertical) {
+				final int top = (int) getHandlePosition();
+				mTouchOffset = (int) y - top;
+				prepareTracking(top);
+			} else {
+				final int left = (int) getHandlePosition();
+				mTouchOffset = (int) x - left;
+				prepareTracking(left);
+			}
+			addMovement(event);
 		}
 
 		sLogcat.v("exit: ", true);
@@ -691,26 +1433,34 @@ public class SlidingDrawer extends ViewGroup {
 		sLogcat.v("tracking ? ", mTracking, ", animating ? ", mAnimating);
 
 		if (mTracking) {
-			mVelocityTracker.addMovement(event);
+			addMovement(event);
+			mLastInputTime = event.getEventTime();
 
 			switch (event.getAction()) {
 			case MotionEvent.ACTION_MOVE:
-				boolean willBackward = moveHandle((int) (isVertical() ? event
-						.getY() : event.getX()) - mTouchOffset);
-				if (mOnDrawerScrollListener != null) {
-					mOnDrawerScrollListener.onScroll(willBackward);
+				final float movePosition = computeDragPosition(event);
+				if (mBatchedInput) {
+					// move once per frame, to the newest position
+					mPendingMovePosition = movePosition;
+					mMovePending = true;
+					scheduleFrame();
+				} else {
+					dispatchMove(movePosition);
 				}
 				break; // MotionEvent.ACTION_MOVE
 
 			case MotionEvent.ACTION_UP:
 			case MotionEvent.ACTION_CANCEL:
-				// get the tap velocity, must after VelocityTracker, if don't
+				// release from the newest position
+				flushPendingMove();
+
+				// get the tap velocity, must after addMovement(), if don't
 				// want to lose some velocity tracks
-				final float velocity = computeVelocity();
+				final float velocity = mCarriedMomentum.combine(
+						computeVelocity(), SystemClock.uptimeMillis());
 
 				// target position
-				int position = (isVertical() ? mHandle.getTop() : mHandle
-						.getLeft());
+				int position = (int) getHandlePosition();
 
 				sLogcat.v("allowSingleTap ? ", mAllowSingleTap);
 
@@ -758,7 +1508,214 @@ public class SlidingDrawer extends ViewGroup {
 					"The content attribute is must refer to an"
 							+ " existing child.");
 		}
-		mContent.setVisibility(View.GONE);
+		if (mContent instanceof ViewStub) {
+			// already gone, making it invisible would inflate it
+			sLogcat.v("content stub ? ", true);
+			return;
+		}
+		// hidden but kept laid out, so that opening and closing don't relayout
+		// the hierarchy
+		mContent.setVisibility(View.INVISIBLE);
+	}
+
+	/**
+	 * Inflates the content if it is still a {@link ViewStub}, and hides it
+	 * until it is revealed. The inflated view gets the id of the content if
+	 * it has none. A pending background inflation is adopted rather than
+	 * inflated a second time.
+	 */
+	private void ensureContentInflated() {
+		if (!(mContent instanceof ViewStub)) {
+			return;
+		}
+		if (mInflateRequest != null) {
+			// waits for the background inflation if already running
+			final View content = mInflateRequest.adopt();
+			mInflateRequest = null;
+			if (content != null) {
+				attachInflatedContent(content);
+				return;
+			}
+		}
+
+		final ViewStub stub = (ViewStub) mContent;
+		final View content = stub.inflate();
+		mContentStub = stub;
+		if (content.getId() == View.NO_ID) {
+			content.setId(mContentId);
+		}
+		setContent(content);
+	}
+
+	/**
+	 * Starts inflating the content stub in the background, unless already
+	 * started.
+	 */
+	private void startContentInflation() {
+		if (mInflateRequest != null) {
+			return;
+		}
+		if (mAsyncInflater == null) {
+			mAsyncInflater = new AsyncContentInflater();
+		}
+
+		final ViewStub stub = (ViewStub) mContent;
+		mInflateRequest = mAsyncInflater.inflate(getContext(),
+				stub.getLayoutResource(), this,
+				new AsyncContentInflater.Callback() {
+					@Override
+					public void onInflateFinished(View content) {
+						onContentInflated(content);
+					}
+				});
+	}
+
+	private void cancelContentInflation() {
+		if (mInflateRequest != null) {
+			mInflateRequest.cancel();
+			mInflateRequest = null;
+		}
+	}
+
+	/**
+	 * Attaches the content inflated in the background in place of its stub,
+	 * and lets it join the motion or the opened drawer.
+	 */
+	private void onContentInflated(View content) {
+		mInflateRequest = null;
+		if (!(mContent instanceof ViewStub)) {
+			return;
+		}
+		if (content == null) {
+			// couldn't be inflated off the UI thread
+			ensureContentInflated();
+		} else {
+			attachInflatedContent(content);
+		}
+
+		if (mTracking || mAnimating) {
+			ensureContentLaidOut();
+			if (mTranslationMovement) {
+				setContentVisibility(View.VISIBLE);
+				translateHandle(getHandlePosition());
+			} else {
+				startContentRendering();
+			}
+		} else if (mExpanded) {
+			ensureContentLaidOut();
+			setContentVisibility(View.VISIBLE);
+		}
+		invalidate();
+	}
+
+	/**
+	 * Replaces the content stub by the content inflated from its layout.
+	 */
+	private void attachInflatedContent(View content) {
+		final ViewStub stub = (ViewStub) mContent;
+		final int index = indexOfChild(stub);
+		final ViewGroup.LayoutParams params = stub.getLayoutParams();
+		if (stub.getInflatedId() != View.NO_ID) {
+			content.setId(stub.getInflatedId());
+		} else if (content.getId() == View.NO_ID) {
+			content.setId(mContentId);
+		}
+		// measured and laid out by the drawer itself, no need to request a
+		// layout of the hierarchy
+		removeViewInLayout(stub);
+		addViewInLayout(content, index,
+				params != null ? params : content.getLayoutParams(), true);
+		mContentStub = stub;
+		setContent(content);
+	}
+
+	/**
+	 * @return width of the content, the one it will have if still a stub
+	 */
+	private int getContentWidth() {
+		if (mContent instanceof ViewStub) {
+			return MeasureSpec.getSize(mContentWidthMeasureSpec);
+		}
+		return mContent.getMeasuredWidth();
+	}
+
+	/**
+	 * @return height of the content, the one it will have if still a stub
+	 */
+	private int getContentHeight() {
+		if (mContent instanceof ViewStub) {
+			return MeasureSpec.getSize(mContentHeightMeasureSpec);
+		}
+		return mContent.getMeasuredHeight();
+	}
+
+	/**
+	 * Replaces the content by the one inflated from its stub, dropping what
+	 * was measured or rendered from the stub.
+	 */
+	private void setContent(View content) {
+		releaseContentRendering();
+		mContent = content;
+		mLastContentWidthMeasureSpec = 0;
+		mLastContentHeightMeasureSpec = 0;
+		mContentMeasured = false;
+		mContentLayoutPending = true;
+		++mContentGeneration;
+		mWarmedUp = false;
+		setContentVisibility(View.INVISIBLE);
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		final WindowManager windowManager = (WindowManager) getContext()
+				.getSystemService(Context.WINDOW_SERVICE);
+		final float refreshRate = windowManager.getDefaultDisplay()
+				.getRefreshRate();
+		if (refreshRate > 0) {
+			mFrameDuration = 1000 / refreshRate;
+		}
+		mFrameCoordinator = FrameCoordinator.get(getWindowToken());
+		resumeFrames();
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+			registerTrimMemoryCallbacks();
+		}
+	}
+
+	@Override
+	protected void onWindowVisibilityChanged(int visibility) {
+		super.onWindowVisibilityChanged(visibility);
+		if (visibility == View.VISIBLE) {
+			resumeFrames();
+		} else {
+			// the animation resumes when the window is shown again
+			suspendFrames();
+		}
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		// no frame is left behind, the drawer is at rest when attached again
+		suspendFrames();
+		finishMotion();
+		mFrameCoordinator = null;
+		cancelWarmUp();
+		if (mTrimMemoryCallbacks != null) {
+			getContext().unregisterComponentCallbacks(mTrimMemoryCallbacks);
+			mTrimMemoryCallbacks = null;
+		}
+		if (mExpanded && mInflateRequest != null) {
+			// opened on the placeholder, nothing would replace it once
+			// attached again
+			ensureContentInflated();
+			setContentVisibility(View.VISIBLE);
+		} else {
+			// inflated again next time
+			cancelContentInflation();
+		}
+		// a snapshot kept for the next motion goes back to the pool
+		releaseContentRendering();
 	}
 
 	@Override
@@ -781,15 +1738,23 @@ public class SlidingDrawer extends ViewGroup {
 		if (isVertical()) {
 			int height = heightSpecSize - handle.getMeasuredHeight()
 					- mExpandedOffset;
-			mContent.measure(MeasureSpec.makeMeasureSpec(widthSpecSize,
-					MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(height,
-					MeasureSpec.EXACTLY));
+			mContentWidthMeasureSpec = MeasureSpec.makeMeasureSpec(
+					widthSpecSize, MeasureSpec.EXACTLY);
+			mContentHeightMeasureSpec = MeasureSpec.makeMeasureSpec(height,
+					MeasureSpec.EXACTLY);
 		} else {
 			int width = widthSpecSize - handle.getMeasuredWidth()
 					- mExpandedOffset;
-			mContent.measure(MeasureSpec.makeMeasureSpec(width,
-					MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(
-					heightSpecSize, MeasureSpec.EXACTLY));
+			mContentWidthMeasureSpec = MeasureSpec.makeMeasureSpec(width,
+					MeasureSpec.EXACTLY);
+			mContentHeightMeasureSpec = MeasureSpec.makeMeasureSpec(
+					heightSpecSize, MeasureSpec.EXACTLY);
+		}
+
+		// a closed drawer doesn't show its content, it is measured when about
+		// to be revealed
+		if (isContentRevealed()) {
+			measureContent();
 		}
 
 		setMeasuredDimension(widthSpecSize, heightSpecSize);
@@ -811,61 +1776,32 @@ public class SlidingDrawer extends ViewGroup {
 		sLogcat.v("tracking ? ", mTracking, ", animatin ? ", mAnimating,
 				", expanded ? ", mExpanded);
 
-		if (mTracking || mAnimating) {
-			final Bitmap cache = mContent.getDrawingCache();
-
-			sLogcat.v("cache ? ", (cache != null));
-
-			if (cache != null) {
-				switch (mOrientation) {
-				case ORIENTATION_TOP_DOWN:
-					canvas.drawBitmap(cache, 0, -mContent.getMeasuredHeight()
-							+ handle.getTop(), null);
-					break;
-
-				case ORIENTATION_BOTTOM_UP:
-					canvas.drawBitmap(cache, 0, handle.getBottom(), null);
-					break;
-
-				case ORIENTATION_LEFT_TO_RIGHT:
-					canvas.drawBitmap(cache, -mContent.getMeasuredWidth()
-							+ handle.getLeft(), 0, null);
-					break;
+		if (mContent instanceof ViewStub) {
+			// still inflated in the background, if ever shown
+			if ((mTracking || mAnimating || mExpanded)
+					&& computeContentSlice()) {
+				canvas.drawRect(mContentSlice, mPlaceholderPaint);
+			}
+		} else if ((mTracking || mAnimating) && mTranslationMovement) {
+			// the content is moved by its translation, the display list of
+			// the drawer is left untouched
+			drawChild(canvas, mContent, drawingTime);
+		} else if (mTracking || mAnimating) {
+			// only the slice of the content inside the drawer is paid for
+			if (computeContentSlice()) {
+				final float left = mContentLeft;
+				final float top = mContentTop;
 
-				case ORIENTATION_RIGHT_TO_LEFT:
-					canvas.drawBitmap(cache, handle.getRight(), 0, null);
-					break;
+				sLogcat.v("render strategy ? ", mRenderStrategy);
 
-				}
-			} else {
 				canvas.save();
-
-				// canvas.translate (dx, dy) -> original point (x0+dx, y0+dy);
-				// that is, prepare for drawing in {(x0+dx, y0+dy) ->
-				// (x0+dx+w, y0+dy+h)} matix, where w and h may be dynamic
-				switch (mOrientation) {
-				case ORIENTATION_TOP_DOWN:
-					canvas.translate(0,
-							-mContent.getMeasuredHeight() + handle.getTop());
-					break;
-
-				case ORIENTATION_BOTTOM_UP:
-					canvas.translate(0, handle.getTop() - mExpandedOffset);
-					break;
-
-				case ORIENTATION_LEFT_TO_RIGHT:
-					canvas.translate(
-							-mContent.getMeasuredWidth() + handle.getLeft(), 0);
-					break;
-
-				case ORIENTATION_RIGHT_TO_LEFT:
-					canvas.translate(handle.getLeft() - mExpandedOffset, 0);
-					break;
-
+				canvas.clipRect(mContentSlice);
+				if (mContentRendering) {
+					mRenderStrategy.draw(this, canvas, mContent, left, top);
+				} else {
+					DirectDrawStrategy
+							.drawAt(this, canvas, mContent, left, top);
 				}
-
-				drawChild(canvas, mContent, drawingTime);
-
 				canvas.restore();
 			}
 		} else if (mExpanded) {
@@ -895,95 +1831,269 @@ public class SlidingDrawer extends ViewGroup {
 		int childLeft = 0;
 		int childTop = 0;
 
-		final View content = mContent;
-
 		switch (mOrientation) {
 		case ORIENTATION_TOP_DOWN:
 			childLeft = (width - childWidth) / 2;
 			childTop = mExpanded ? height - childHeight - mExpandedOffset
 					: -mCollapsedOffset;
-
-			content.layout(0, 0, content.getMeasuredWidth(),
-					content.getMeasuredHeight());
 			break;
 
 		case ORIENTATION_BOTTOM_UP:
 			childLeft = (width - childWidth) / 2;
 			childTop = mExpanded ? mExpandedOffset : height - childHeight
 					+ mCollapsedOffset;
-
-			content.layout(0, mExpandedOffset + childHeight,
-					content.getMeasuredWidth(), mExpandedOffset + childHeight
-							+ content.getMeasuredHeight());
 			break;
 
 		case ORIENTATION_LEFT_TO_RIGHT:
 			childLeft = mExpanded ? width - childWidth - mExpandedOffset
 					: -mCollapsedOffset;
 			childTop = (height - childHeight) / 2;
-
-			content.layout(0, 0, content.getMeasuredWidth(),
-					content.getMeasuredHeight());
 			break;
 
 		case ORIENTATION_RIGHT_TO_LEFT:
 			childLeft = mExpanded ? mExpandedOffset : width - childWidth
 					+ mCollapsedOffset;
 			childTop = (height - childHeight) / 2;
-
-			content.layout(mExpandedOffset + childWidth, 0, mExpandedOffset
-					+ childWidth + content.getMeasuredWidth(),
-					content.getMeasuredHeight());
 			break;
 
 		}
 
+		if (isContentRevealed()) {
+			// measured already, unless it was deferred before being revealed
+			measureContent();
+			layoutContent();
+		} else {
+			mContentLayoutPending = true;
+		}
+
 		handle.layout(childLeft, childTop, childLeft + childWidth, childTop
 				+ childHeight);
 		mHandleHeight = handle.getHeight();
 		mHandleWidth = handle.getWidth();
 
+		// measured now, the closed drawer can be warmed up
+		scheduleWarmUp();
+
 		sLogcat.v("exit: didOnLayout");
 	}
 
-	private float computeVelocity() {
-		final VelocityTracker velocityTracker = mVelocityTracker;
-		velocityTracker.computeCurrentVelocity(mVelocityUnits);
+	/**
+	 * @return position of the handle under the finger, predicted if enabled
+	 * @see #setTouchPrediction(int)
+	 */
+	private float computeDragPosition(MotionEvent event) {
+		if (mTouchPrediction == 0) {
+			return (isVertical() ? event.getY() : event.getX())
+					- mTouchOffset;
+		}
 
-		float yVelocity = velocityTracker.getYVelocity();
-		float xVelocity = velocityTracker.getXVelocity();
-		boolean negative;
+		// the newest sample of the estimator is this event
+		final float predicted = mVelocityEstimator.predictPosition(
+				event.getEventTime() + mTouchPrediction,
+				mMaximumPredictionDistance);
+		final float position = predicted - mTouchOffset;
+
+		// never predict out of the range of the handle
+		final int opened = getOpenedPosition();
+		final int closed = getClosedPosition();
+		return Math.max(Math.min(opened, closed),
+				Math.min(Math.max(opened, closed), position));
+	}
 
-		final boolean vertical = isVertical();
-		if (vertical) {
-			// in the vertical direction, the direction of the vector as
-			// same as subvector Y
-			negative = yVelocity < 0;
-			if (xVelocity < 0) {
-				xVelocity = -xVelocity;
-			}
-			if (xVelocity > mMaximumMinorVelocity) {
-				xVelocity = mMaximumMinorVelocity;
-			}
-		} else {
-			// in the horizontal direction, the direction of the vector
-			// as same as subvector X
-			negative = xVelocity < 0;
-			if (yVelocity < 0) {
-				yVelocity = -yVelocity;
+	private void dispatchMove(float position) {
+		boolean willBackward = moveHandleTo(position);
+		if (mOnDrawerScrollListener != null) {
+			mOnDrawerScrollListener.onScroll(willBackward);
+		}
+	}
+
+	/**
+	 * Applies the drag position batched during the frame, if any.
+	 * 
+	 * @see #setBatchedInput(boolean)
+	 */
+	private void flushPendingMove() {
+		if (mMovePending) {
+			mMovePending = false;
+			if (mTracking) {
+				dispatchMove(mPendingMovePosition);
 			}
-			if (yVelocity > mMaximumMinorVelocity) {
-				yVelocity = mMaximumMinorVelocity;
+		}
+	}
+
+	/**
+	 * Feeds the velocity estimator with the position along the axis of the
+	 * drawer, including the historical points batched into the event.
+	 */
+	private void addMovement(MotionEvent event) {
+		final VelocityEstimator estimator = mVelocityEstimator;
+		final boolean vertical = isVertical();
+
+		final int historySize = event.getHistorySize();
+		for (int h = 0; h != historySize; ++h) {
+			estimator.addSample(event.getHistoricalEventTime(h),
+					vertical ? event.getHistoricalY(h) : event
+							.getHistoricalX(h));
+		}
+		estimator.addSample(event.getEventTime(),
+				vertical ? event.getY() : event.getX());
+	}
+
+	private float computeVelocity() {
+		// px/s, scaled by the density as the thresholds are
+		return mVelocityEstimator.computeVelocity() * mVelocityUnits
+				/ VELOCITY_UNITS;
+	}
+
+	/**
+	 * Draws the content at its layout position, for the
+	 * {@link ContentRenderStrategy strategies}.
+	 */
+	void drawContent(Canvas canvas) {
+		drawChild(canvas, mContent, getDrawingTime());
+	}
+
+	/**
+	 * Computes where the content is drawn while the drawer is moving, next to
+	 * the handle, and the slice of it inside the drawer.
+	 * 
+	 * @return false if no part of the content is visible
+	 */
+	private boolean computeContentSlice() {
+		final float position = getHandlePosition();
+		final int width = getContentWidth();
+		final int height = getContentHeight();
+		float left = 0;
+		float top = 0;
+
+		switch (mOrientation) {
+		case ORIENTATION_TOP_DOWN:
+			top = -height + position;
+			break;
+
+		case ORIENTATION_BOTTOM_UP:
+			top = position + mHandle.getHeight();
+			break;
+
+		case ORIENTATION_LEFT_TO_RIGHT:
+			left = -width + position;
+			break;
+
+		case ORIENTATION_RIGHT_TO_LEFT:
+			left = position + mHandle.getWidth();
+			break;
+
+		}
+
+		mContentLeft = left;
+		mContentTop = top;
+
+		final Rect slice = mContentSlice;
+		slice.set((int) left, (int) top, (int) left + width, (int) top
+				+ height);
+		return slice.intersect(0, 0, getWidth(), getHeight());
+	}
+
+	@Override
+	public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+		// location is the place of the child of the drawer which is
+		// invalidated, or whose descendant is. The handle may sit where the
+		// content is laid out, f.e. a full-width handle collapsed at the top,
+		// the invalidation is then taken as the content's: a spurious
+		// snapshot is cheaper than a stale one
+		final View content = mContent;
+		if (content == null || location[0] != content.getLeft()
+				|| location[1] != content.getTop()) {
+			// can't be the content
+			return super.invalidateChildInParent(location, dirty);
+		}
+
+		++mContentGeneration;
+
+		if ((mTracking || mAnimating) && !mTranslationMovement
+				&& dirty != null) {
+			// the content isn't drawn at its layout position while moving,
+			// only the part of the dirty region in the visible slice is
+			// redrawn, from where the content is drawn
+			final Rect region = mContentDirty;
+			region.set(dirty);
+			if (computeContentSlice()) {
+				region.offset((int) mContentLeft, (int) mContentTop);
+				if (region.intersect(mContentSlice)) {
+					invalidate(region);
+				}
 			}
+			return null;
+		}
+
+		return super.invalidateChildInParent(location, dirty);
+	}
+
+	@Override
+	public void requestLayout() {
+		if (mContent != null && mContent.isLayoutRequested()) {
+			++mContentGeneration;
+			// requested again since measured
+			mContentMeasured = false;
 		}
+		super.requestLayout();
+	}
 
-		// Vector VELOCITY has length SQRT(x^2+ y^2)
-		float velocity = (float) Math.hypot(xVelocity, yVelocity);
-		if (negative) {
-			velocity = -velocity;
+	/**
+	 * Shows or hides the content without changing its generation, the
+	 * invalidation it triggers doesn't change what the content draws. The
+	 * content is hidden as {@link View#INVISIBLE}, never {@link View#GONE},
+	 * which would request a layout of the whole hierarchy.
+	 */
+	private void setContentVisibility(int visibility) {
+		if (mContent instanceof ViewStub) {
+			// stays gone until inflated
+			return;
 		}
 
-		return velocity;
+		final int generation = mContentGeneration;
+		mContent.setVisibility(visibility);
+		mContentGeneration = generation;
+	}
+
+	/**
+	 * Lets the render strategy picked by the policy prepare the content for
+	 * the motion.
+	 */
+	private void startContentRendering() {
+		endContentRendering(mExpanded);
+
+		final ContentRenderStrategy strategy = mRenderPolicy.select(mContent);
+		if (strategy != mRenderStrategy) {
+			releaseContentRendering();
+			mRenderStrategy = strategy;
+		}
+		mContentRendering = true;
+		strategy.onMotionStarted(this, mContent);
+	}
+
+	/**
+	 * Tells the render strategy the motion is over, if any.
+	 * 
+	 * @param opened
+	 *            true if the drawer came to rest opened
+	 */
+	private void endContentRendering(boolean opened) {
+		if (mContentRendering) {
+			mContentRendering = false;
+			mRenderStrategy.onMotionEnded(this, mContent, opened);
+		}
+	}
+
+	/**
+	 * Releases everything the render strategy kept between motions.
+	 */
+	private void releaseContentRendering() {
+		endContentRendering(mExpanded);
+		if (mRenderStrategy != null) {
+			mRenderStrategy.release(this, mContent);
+			mRenderStrategy = null;
+		}
 	}
 
 	private boolean isSingleTap() {
@@ -991,29 +2101,34 @@ public class SlidingDrawer extends ViewGroup {
 
 		boolean ret = false;
 
+		// where the handle is drawn, translation included
+		final int position = (int) getHandlePosition();
+		final int handleTop = (mVertical ? position : mHandle.getTop());
+		final int handleBottom = handleTop + mHandleHeight;
+		final int handleLeft = (mVertical ? mHandle.getLeft() : position);
+		final int handleRight = handleLeft + mHandleWidth;
+
 		switch (mOrientation) {
 		case ORIENTATION_TOP_DOWN:
-			ret = (mExpanded && mHandle.getBottom() >= getTop() - getBottom()
+			ret = (mExpanded && handleBottom >= getTop() - getBottom()
 					- mExpandedOffset - mTapThreshold)
-					|| (!mExpanded && mHandle.getTop() + mCollapsedOffset <= mTapThreshold);
+					|| (!mExpanded && handleTop + mCollapsedOffset <= mTapThreshold);
 			break;
 
 		case ORIENTATION_BOTTOM_UP:
-			ret = (mExpanded && mHandle.getTop() <= mTapThreshold
-					+ mExpandedOffset)
-					|| (!mExpanded && mHandle.getBottom() - mCollapsedOffset >= getBottom()
+			ret = (mExpanded && handleTop <= mTapThreshold + mExpandedOffset)
+					|| (!mExpanded && handleBottom - mCollapsedOffset >= getBottom()
 							- getTop() - mTapThreshold);
 			break;
 
 		case ORIENTATION_LEFT_TO_RIGHT:
-			ret = ((mExpanded && mHandle.getRight() >= getRight() - getLeft()
-					- mExpandedOffset - mTapThreshold) || (!mExpanded && mHandle
-					.getLeft() + mCollapsedOffset <= mTapThreshold));
+			ret = ((mExpanded && handleRight >= getRight() - getLeft()
+					- mExpandedOffset - mTapThreshold) || (!mExpanded && handleLeft
+					+ mCollapsedOffset <= mTapThreshold));
 			break;
 
 		case ORIENTATION_RIGHT_TO_LEFT:
-			ret = ((mExpanded && mHandle.getLeft() <= mTapThreshold
-					+ mExpandedOffset) || (!mExpanded && mHandle.getRight()
+			ret = ((mExpanded && handleLeft <= mTapThreshold + mExpandedOffset) || (!mExpanded && handleRight
 					- mCollapsedOffset >= getRight() - getLeft()
 					- mTapThreshold));
 			break;
@@ -1026,8 +2141,9 @@ public class SlidingDrawer extends ViewGroup {
 	}
 
 	private void refresh() {
+		// the handle is already offset to its place and the content stays laid
+		// out while hidden, a draw is enough
 		invalidate();
-		requestLayout();
 	}
 
 	private void animateClose(int position) {
@@ -1083,9 +2199,6 @@ public class SlidingDrawer extends ViewGroup {
 	 *            {@link #animateOpen()} and {@link #animateClose()}
 	 */
 	private void performFling(int position, float velocity, boolean autoAnimated) {
-		mAnimationPosition = position;
-		mAnimatedVelocity = velocity;
-
 		final boolean invertedCoord = (mOrientation == ORIENTATION_LEFT_TO_RIGHT || mOrientation == ORIENTATION_TOP_DOWN);
 		final int ROLLBACK_OFFSET_THRESHOLD = (mVertical ? getHeight()
 				: getWidth()) / 4;
@@ -1128,32 +2241,12 @@ public class SlidingDrawer extends ViewGroup {
 
 			if (autoAnimated || willOnFling || !willRollback) {
 				// We are expanded and are now going to animate CLOSE.
-				if (invertedCoord) {
-					mAnimatedAcceleration = -mMaximumAcceleration;
-					if (velocity > 0) {
-						mAnimatedVelocity = 0;
-					}
-				} else {
-					mAnimatedAcceleration = mMaximumAcceleration;
-					if (velocity < 0) {
-						mAnimatedVelocity = 0;
-					}
-				}
+				mAnimatingOpen = false;
 			} else {
 				// We are expanded, but they didn't move sufficiently to cause
 				// us to retract. Animate back to the expanded position. so
 				// animate BACK to expanded!
-				if (invertedCoord) {
-					mAnimatedAcceleration = mMaximumAcceleration;
-					if (velocity < 0) {
-						mAnimatedVelocity = 0;
-					}
-				} else {
-					mAnimatedAcceleration = -mMaximumAcceleration;
-					if (velocity > 0) {
-						mAnimatedVelocity = 0;
-					}
-				}
+				mAnimatingOpen = true;
 			}
 		} else {
 			// we're COLLAPSED
@@ -1188,100 +2281,220 @@ public class SlidingDrawer extends ViewGroup {
 
 			if (autoAnimated || willOnFling || !willRollback) {
 				// We are expanded and are now going to animate OPEN.
-				if (!invertedCoord) {
-					mAnimatedAcceleration = -mMaximumAcceleration;
-					if (velocity > 0) {
-						mAnimatedVelocity = 0;
-					}
-				} else {
-					mAnimatedAcceleration = mMaximumAcceleration;
-					if (velocity < 0) {
-						mAnimatedVelocity = 0;
-					}
-				}
+				mAnimatingOpen = true;
 			} else {
 				// We are expanded, but they didn't move sufficiently to cause
 				// us to retract. Animate back to the expanded position. so
 				// animate BACK to collapsed!
-
-				if (!invertedCoord) {
-					mAnimatedAcceleration = mMaximumAcceleration;
-					if (velocity < 0) {
-						mAnimatedVelocity = 0;
-					}
-				} else {
-
-					mAnimatedAcceleration = -mMaximumAcceleration;
-					if (velocity > 0) {
-						mAnimatedVelocity = 0;
-					}
-				}
+				mAnimatingOpen = false;
 			}
 		}
 
-		long now = SystemClock.uptimeMillis();
-		mAnimationLastTime = now;
-		mCurrentAnimationTime = now + ANIMATION_FRAME_DURATION;
+		final int target = (mAnimatingOpen ? getOpenedPosition()
+				: getClosedPosition());
+		// never start moving away from the target
+		if ((target - position) * velocity < 0) {
+			velocity = 0;
+		}
+		mTrajectory = mPhysics.createTrajectory(position, velocity, target);
+
+		mAnimationStartTime = SystemClock.uptimeMillis();
+		mLastAnimationFrameTime = 0;
 		mAnimating = true;
-		mHandler.removeMessages(MSG_ANIMATE);
-		mHandler.sendMessageAtTime(mHandler.obtainMessage(MSG_ANIMATE),
-				mCurrentAnimationTime);
+		cancelFrame();
+		scheduleFrame();
 		stopTracking();
 	}
 
 	private void prepareTracking(int position) {
-		mVelocityTracker = VelocityTracker.obtain();
+		mVelocityEstimator.clear();
+		mCarriedMomentum.clear();
+		mLastInputTime = 0;
+
 		boolean opening = !mExpanded;
-		if (opening) {
-			// tap to expanded very quickly, if allow
-			mAnimatedAcceleration = mMaximumAcceleration;
-			mAnimatedVelocity = mMaximumMajorVelocity;
+		if (mInterruptible && mAnimating && mTrajectory != null) {
+			// take over the settling animation: leave the handle where it is
+			// and carry its velocity into the drag, the content is already
+			// prepared
+			final long now = SystemClock.uptimeMillis();
+			final float t = Math.max(0, now - mAnimationStartTime) / 1000.0f;
+			// px/s, scaled by the density as the tracked velocity is
+			mCarriedMomentum.carry(mTrajectory.getVelocity(t) * mVelocityUnits
+					/ VELOCITY_UNITS, now);
+
+			cancelFrame();
+			mTrajectory = null;
+			// keep drawing the content as when dragging it out
+			mAnimating = opening;
+			moveHandle(position);
+		} else if (opening) {
+			// reset animator frame time, before moving as the move is
+			// invalidated at the next frame
+			cancelFrame();
+			mTrajectory = null;
 
 			// put it in its place, ready to go if given more action, f.e.
 			// dragging, animating or others
-			switch (mOrientation) {
-			case ORIENTATION_TOP_DOWN:
-				mAnimatedAcceleration = -mCollapsedOffset;
-				break;
+			moveHandle(getClosedPosition());
 
-			case ORIENTATION_BOTTOM_UP:
-				mAnimationPosition = getHeight() - mHandleHeight
-						+ mCollapsedOffset;
-				break;
+			mAnimationStartTime = SystemClock.uptimeMillis();
+			mAnimating = true;
+		} else {
+			if (mAnimating) {
+				mAnimating = false;
+				cancelFrame();
+				mTrajectory = null;
+			}
+			moveHandle(position);
+		}
 
-			case ORIENTATION_LEFT_TO_RIGHT:
-				mAnimationPosition = -mCollapsedOffset;
-				break;
+		// MUST did prepareTracking, then set true
+		mTracking = true;
+		// reset before moving, NEVER delete unless you don't moveHandle() above
+		mTouchDelta = 0;
+	}
 
-			case ORIENTATION_RIGHT_TO_LEFT:
-				mAnimationPosition = getWidth() - mHandleWidth
-						+ mCollapsedOffset;
-				break;
+	/**
+	 * Moves the handle to a sub-pixel position, by translation if enabled.
+	 * 
+	 * @see #setTranslationMovement(boolean)
+	 */
+	private boolean moveHandleTo(float position) {
+		if (mTranslationMovement) {
+			return translateHandle(position);
+		}
+		return moveHandle((int) position);
+	}
+
+	/**
+	 * Requests {@link #stepFrame(long)} on the next frame, unless the frames
+	 * are suspended.
+	 */
+	private void scheduleFrame() {
+		if (!mFramesSuspended && mFrameCoordinator != null) {
+			if (!mFrameRequested) {
+				mFrameRequested = true;
+				if (mInFrame) {
+					mFrameRequestTime = mFrameTime;
+				} else if (mTracking && mLastInputTime != 0) {
+					mFrameRequestTime = mLastInputTime;
+				} else {
+					mFrameRequestTime = SystemClock.uptimeMillis();
+				}
+			}
+			mFrameCoordinator.requestFrame(this);
+		}
+	}
+
+	/**
+	 * Removes the pending frame request, if any, unless a merged region still
+	 * waits for its flush.
+	 */
+	private void cancelFrame() {
+		if (mFrameCoordinator != null) {
+			mFrameCoordinator.cancelFrame(this);
+			mFrameRequested = false;
+			if (mDirtyRegion.isDirty()) {
+				// the merged region still has to be flushed
+				scheduleFrame();
+			}
+		}
+	}
+
+	/**
+	 * Stops the frames while the drawer can't be seen, the running animation
+	 * is paused.
+	 */
+	private void suspendFrames() {
+		if (mFramesSuspended) {
+			return;
+		}
+		mFramesSuspended = true;
+		mSuspendTime = SystemClock.uptimeMillis();
+		cancelFrame();
+	}
+
+	/**
+	 * Restarts the frames, the running animation resumes where it was paused.
+	 */
+	private void resumeFrames() {
+		if (!mFramesSuspended) {
+			return;
+		}
+		mFramesSuspended = false;
+
+		final long now = SystemClock.uptimeMillis();
+		if (mAnimating && mTrajectory != null) {
+			// only the part of the animation after the suspension was paused
+			final long paused = now
+					- Math.max(mSuspendTime, mAnimationStartTime);
+			// frames of the display, read again when attached
+			mSuppressedFrameCount += (int) (paused / mFrameDuration);
+			mAnimationStartTime += paused;
+			// the pause isn't a stall
+			mLastAnimationFrameTime = 0;
+			scheduleFrame();
+		}
+		if (mMovePending || mProgressChanged || mDirtyRegion.isDirty()) {
+			scheduleFrame();
+		}
+	}
 
-			}
-			moveHandle((int) mAnimationPosition);
+	/**
+	 * Brings a drawer which is moving to rest, at the end of its animation or
+	 * where the drag started.
+	 */
+	private void finishMotion() {
+		final boolean moving = mTracking || mAnimating;
+		if (mTracking) {
+			stopTracking();
+		}
+		if (!moving) {
+			return;
+		}
 
-			// reset animator frame time
-			mHandler.removeMessages(MSG_ANIMATE);
-			long now = SystemClock.uptimeMillis();
-			mAnimationLastTime = now;
-			mCurrentAnimationTime = now + ANIMATION_FRAME_DURATION;
-			mAnimating = true;
+		final boolean open = (mAnimating && mTrajectory != null ? mAnimatingOpen
+				: mExpanded);
+		mAnimating = false;
+		mTrajectory = null;
+		cancelFrame();
+		if (open) {
+			openDrawer();
 		} else {
-			if (mAnimating) {
-				mAnimating = false;
-				mHandler.removeMessages(MSG_ANIMATE);
-			}
-			moveHandle(position);
+			closeDrawer();
 		}
+	}
 
-		// MUST did prepareTracking, then set true
-		mTracking = true;
-		// reset before moving, NEVER delete unless you don't moveHandle() above
-		mTouchDelta = 0;
+	/**
+	 * Invalidates the region at the next frame, merged with the other ones of
+	 * the frame.
+	 */
+	private void invalidateRegion(Rect region) {
+		if (mDirtyRegion.union(region)) {
+			// the next regions of the frame are flushed with this one
+			scheduleFrame();
+		}
+	}
+
+	/**
+	 * Invalidates the whole drawer now, the pending region is part of it.
+	 */
+	private void invalidateAll() {
+		mDirtyRegion.discard();
+		invalidate();
 	}
 
 	private boolean moveHandle(int position) {
+		notifyProgressChanged();
+		if (mTranslationMovement) {
+			if (position != EXPANDED_FULL_OPEN
+					&& position != COLLAPSED_FULL_CLOSED) {
+				return translateHandle(position);
+			}
+			// at rest, the handle is offset to its final place
+			resetTranslation();
+		}
+
 		boolean willBackward = false;
 		final View handle = mHandle;
 
@@ -1299,14 +2512,14 @@ public class SlidingDrawer extends ViewGroup {
 				} else {
 					handle.offsetTopAndBottom(upperHalfOffset);
 				}
-				invalidate();
+				invalidateAll();
 			} else if (position == COLLAPSED_FULL_CLOSED) {
 				if (mOrientation == ORIENTATION_TOP_DOWN) {
 					handle.offsetTopAndBottom(upperHalfOffset);
 				} else {
 					handle.offsetTopAndBottom(lowerHalfOffset);
 				}
-				invalidate();
+				invalidateAll();
 			} else {
 				final int top = handle.getTop();
 				int deltaY = position - top;
@@ -1340,10 +2553,10 @@ public class SlidingDrawer extends ViewGroup {
 					region.union(0, 0, getWidth(), frame.top - deltaY);
 				} else {
 					region.union(0, frame.bottom - deltaY, getWidth(),
-							frame.bottom - deltaY + mContent.getHeight());
+							frame.bottom - deltaY + getContentHeight());
 				}
 
-				invalidate(region);
+				invalidateRegion(region);
 			}
 		} else {
 			final int leftHalfOffset = (mOrientation == ORIENTATION_LEFT_TO_RIGHT ? -mCollapsedOffset
@@ -1359,14 +2572,14 @@ public class SlidingDrawer extends ViewGroup {
 				} else {
 					handle.offsetLeftAndRight(leftHalfOffset);
 				}
-				invalidate();
+				invalidateAll();
 			} else if (position == COLLAPSED_FULL_CLOSED) {
 				if (mOrientation == ORIENTATION_LEFT_TO_RIGHT) {
 					handle.offsetLeftAndRight(leftHalfOffset);
 				} else {
 					handle.offsetLeftAndRight(rightHalfOffset);
 				}
-				invalidate();
+				invalidateAll();
 			} else {
 				final int left = handle.getLeft();
 				int deltaX = position - left;
@@ -1400,10 +2613,10 @@ public class SlidingDrawer extends ViewGroup {
 					region.union(0, 0, frame.left - deltaX, getHeight());
 				} else {
 					region.union(frame.right - deltaX, 0, frame.right - deltaX
-							+ mContent.getWidth(), getHeight());
+							+ getContentWidth(), getHeight());
 				}
 
-				invalidate(region);
+				invalidateRegion(region);
 			}
 		}
 
@@ -1413,9 +2626,94 @@ public class SlidingDrawer extends ViewGroup {
 		return willBackward;
 	}
 
+	/**
+	 * @return current position of the handle along the axis of the drawer,
+	 *         translation included
+	 */
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	private float getHandlePosition() {
+		final View handle = mHandle;
+		if (isVertical()) {
+			return handle.getTop()
+					+ (mTranslationMovement ? handle.getTranslationY() : 0);
+		} else {
+			return handle.getLeft()
+					+ (mTranslationMovement ? handle.getTranslationX() : 0);
+		}
+	}
+
+	/**
+	 * Moves the handle and the content by their translation properties, only
+	 * render properties are updated.
+	 * 
+	 * @see #setTranslationMovement(boolean)
+	 */
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	private boolean translateHandle(float position) {
+		notifyProgressChanged();
+		final View handle = mHandle;
+		final View content = mContent;
+
+		// make it within the range
+		final int opened = getOpenedPosition();
+		final int closed = getClosedPosition();
+		position = Math.max(Math.min(opened, closed),
+				Math.min(Math.max(opened, closed), position));
+
+		final float delta = position - getHandlePosition();
+		final boolean willBackward = (mTouchDelta * delta) < 0;
+		if (delta != 0) {
+			mTouchDelta = (delta < 0 ? -1 : 1);
+		}
+
+		// the content is attached to the handle, at rest once expanded
+		switch (mOrientation) {
+		case ORIENTATION_TOP_DOWN:
+			handle.setTranslationY(position - handle.getTop());
+			content.setTranslationY(position - content.getMeasuredHeight());
+			break;
+
+		case ORIENTATION_BOTTOM_UP:
+			handle.setTranslationY(position - handle.getTop());
+			content.setTranslationY(position - mExpandedOffset);
+			break;
+
+		case ORIENTATION_LEFT_TO_RIGHT:
+			handle.setTranslationX(position - handle.getLeft());
+			content.setTranslationX(position - content.getMeasuredWidth());
+			break;
+
+		case ORIENTATION_RIGHT_TO_LEFT:
+			handle.setTranslationX(position - handle.getLeft());
+			content.setTranslationX(position - mExpandedOffset);
+			break;
+
+		}
+
+		return willBackward;
+	}
+
+	@TargetApi(Build.VERSION_CODES.HONEYCOMB)
+	private void resetTranslation() {
+		mHandle.setTranslationX(0);
+		mHandle.setTranslationY(0);
+		mContent.setTranslationX(0);
+		mContent.setTranslationY(0);
+	}
+
 	private void prepareContent() {
 		sLogcat.v("entry");
 
+		// the first motion materializes a content stub, without blocking the
+		// gesture if it can be inflated in the background
+		if (mAsyncInflation && mContent instanceof ViewStub) {
+			startContentInflation();
+		} else {
+			ensureContentInflated();
+		}
+		// nothing left to warm up once prepared
+		mWarmedUp = true;
+
 		if (mAnimating) {
 			sLogcat.v("exit: animating ? ", false);
 			return;
@@ -1425,55 +2723,31 @@ public class SlidingDrawer extends ViewGroup {
 			mOnDrawerScrollListener.onPreScrollStarted();
 		}
 
-		// Something changed in the content, we need to honor the layout request
-		// before creating the cached bitmap
+		// Something changed in the content, or its measure was deferred while
+		// closed, we need to honor it before creating the cached bitmap
 		final View content = mContent;
-		if (content.isLayoutRequested()) {
-			if (isVertical()) {
-				final int childHeight = mHandleHeight;
-				int height = getBottom() - getTop() - childHeight
-						- mExpandedOffset;
-				content.measure(MeasureSpec.makeMeasureSpec(getRight()
-						- getLeft(), MeasureSpec.EXACTLY), MeasureSpec
-						.makeMeasureSpec(height, MeasureSpec.EXACTLY));
-				if (mOrientation == ORIENTATION_TOP_DOWN) {
-					content.layout(0, 0, content.getMeasuredWidth(),
-							content.getMeasuredHeight());
-				} else {
-					content.layout(0, mExpandedOffset + childHeight,
-							content.getMeasuredWidth(), mExpandedOffset
-									+ childHeight + content.getMeasuredHeight());
-				}
-			} else {
-				final int childWidth = mHandle.getWidth();
-				int width = getRight() - getLeft() - childWidth
-						- mExpandedOffset;
-				content.measure(MeasureSpec.makeMeasureSpec(width,
-						MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(
-						getBottom() - getTop(), MeasureSpec.EXACTLY));
-				if (mOrientation == ORIENTATION_LEFT_TO_RIGHT) {
-					content.layout(0, 0, content.getMeasuredWidth(),
-							content.getMeasuredHeight());
-				} else {
-					content.layout(
-							childWidth + mExpandedOffset,
-							0,
-							mExpandedOffset + childWidth
-									+ content.getMeasuredWidth(),
-							content.getMeasuredHeight());
-				}
-			}
-		}
+		ensureContentLaidOut();
 		// Try only once... we should really loop but it's not a big deal
 		// if the draw was cancelled, it will only be temporary anyway
 		content.getViewTreeObserver().dispatchOnPreDraw();
 
-		// Creating the cached bitmap
-		if (!content.isHardwareAccelerated()) {
-			content.buildDrawingCache();
+		if (content instanceof ViewStub) {
+			// the placeholder is drawn until the content is inflated
+			sLogcat.v("exit: inflating");
+			return;
+		}
+
+		if (mTranslationMovement) {
+			// drawn as is, only its translation changes while moving
+			setContentVisibility(View.VISIBLE);
+			sLogcat.v("exit: translation movement");
+			return;
 		}
 
-		content.setVisibility(View.GONE);
+		// the strategy renders the content until the drawer comes to rest
+		startContentRendering();
+
+		setContentVisibility(View.INVISIBLE);
 
 		sLogcat.v("exit: didPrepareContent");
 	}
@@ -1481,80 +2755,277 @@ public class SlidingDrawer extends ViewGroup {
 	private void stopTracking() {
 		mHandle.setPressed(false);
 		mTracking = false;
+		mMovePending = false;
+		notifyProgressChanged();
 
 		if (mOnDrawerScrollListener != null) {
 			mOnDrawerScrollListener.onScrollEnded();
 		}
 
-		if (mVelocityTracker != null) {
-			mVelocityTracker.recycle();
-			mVelocityTracker = null;
-		}
+		mVelocityEstimator.clear();
 	}
 
-	private void doAnimation() {
-		boolean willOpen = false;
-		boolean willClose = false;
+	/**
+	 * Steps the drawer, invoked by the {@link FrameCoordinator} of the window
+	 * with the same frame time for every drawer.
+	 * 
+	 * @param frameTime
+	 *            time (ms) of the frame being rendered, in the
+	 *            {@link SystemClock#uptimeMillis()} time base
+	 * @see #flushFrame()
+	 */
+	void stepFrame(long frameTime) {
+		if (mFramesSuspended) {
+			++mSuppressedFrameCount;
+			mFrameRequested = false;
+			mFrameTime = 0;
+			return;
+		}
+		// nothing was requested for a while before this frame, f.e. the
+		// finger paused, the interval since the previous one isn't a frame
+		mFrameContinued = (mFrameTime != 0 && mFrameRequested && mFrameRequestTime
+				- mFrameTime <= mFrameDuration);
+		mFrameRequested = false;
+		mFrameTime = frameTime;
+		mInFrame = true;
+		// the drawer is moving, the warm-up would only steal its frames
+		cancelWarmUp();
+		flushPendingMove();
+		doAnimation(frameTime);
+		dispatchProgress(frameTime);
+		mInFrame = false;
+	}
 
-		if (mAnimating) {
-			incrementAnimation();
+	/**
+	 * Requests the progress to be dispatched on the next frame, or at the end
+	 * of the current one.
+	 */
+	private void notifyProgressChanged() {
+		if (mProgressListeners.length == 0) {
+			return;
+		}
+		mProgressChanged = true;
+		if (!mInFrame) {
+			scheduleFrame();
+		}
+	}
 
-			switch (mOrientation) {
-			case ORIENTATION_TOP_DOWN:
-				willOpen = (mAnimationPosition >= (getHeight()
-						- mExpandedOffset - 1));
-				willClose = (mAnimationPosition < -mCollapsedOffset);
-				break;
+	private void dispatchProgress(long frameTime) {
+		if (!mProgressChanged) {
+			return;
+		}
+		mProgressChanged = false;
 
-			case ORIENTATION_BOTTOM_UP:
-				willOpen = (mAnimationPosition < mExpandedOffset);
-				willClose = (mAnimationPosition >= (getHeight()
-						+ mCollapsedOffset - 1));
-				break;
+		final float range = getOpenedPosition() - getClosedPosition();
+		float velocity = 0;
+		if (mTracking) {
+			velocity = mVelocityEstimator.computeVelocity();
+		} else if (mAnimating && mTrajectory != null) {
+			final float t = Math.max(0, frameTime - mAnimationStartTime) / 1000.0f;
+			velocity = mTrajectory.getVelocity(t);
+		}
+		if (range != 0) {
+			velocity /= range;
+		} else {
+			velocity = 0;
+		}
 
-			case ORIENTATION_LEFT_TO_RIGHT:
-				willOpen = (mAnimationPosition >= (getWidth() - mExpandedOffset - 1));
-				willClose = (mAnimationPosition < -mCollapsedOffset);
-				break;
+		final float fraction = getOpenFraction();
+		final int state = getState();
+		final OnDrawerProgressListener[] listeners = mProgressListeners;
+		for (int i = 0; i != listeners.length; ++i) {
+			listeners[i].onDrawerProgress(this, fraction, velocity, state);
+		}
+	}
 
-			case ORIENTATION_RIGHT_TO_LEFT:
-				willOpen = (mAnimationPosition < mExpandedOffset);
-				willClose = (mAnimationPosition >= (getWidth()
-						+ mCollapsedOffset - 1));
-				break;
+	/**
+	 * Invalidates every move of the frame at once, invoked once every drawer
+	 * of the window was stepped.
+	 */
+	void flushFrame() {
+		mDirtyRegion.flush(this);
+	}
 
+	/**
+	 * Moves the handle along the trajectory of the fling, if any, to its
+	 * position at the frame.
+	 * 
+	 * @param frameTime
+	 *            time (ms) of the frame being rendered, in the
+	 *            {@link SystemClock#uptimeMillis()} time base
+	 */
+	private void doAnimation(long frameTime) {
+		if (mAnimating && mTrajectory != null) {
+			// one step per displayed frame, those missed in between are
+			// skipped rather than replayed
+			if (mLastAnimationFrameTime != 0) {
+				final long interval = frameTime - mLastAnimationFrameTime;
+				if (interval <= 0) {
+					// same frame
+					scheduleFrame();
+					return;
+				}
+				final int skipped = Math.round(interval / mFrameDuration) - 1;
+				if (skipped > 0) {
+					sLogcat.v("skipped frames ? ", skipped);
+					mSkippedFrameCount += skipped;
+				}
 			}
+			mLastAnimationFrameTime = frameTime;
 
-			if (willOpen) {
-				mAnimating = false;
-				openDrawer();
-			} else if (willClose) {
+			// the vsync time of the first frame may be a little earlier than
+			// the moment the fling was performed
+			final float t = Math.max(0, frameTime - mAnimationStartTime) / 1000.0f; // ms -> s
+
+			if (mTrajectory.isFinished(t)) {
 				mAnimating = false;
-				closeDrawer();
+				mTrajectory = null;
+				if (mAnimatingOpen) {
+					openDrawer();
+				} else {
+					closeDrawer();
+				}
 			} else {
-				moveHandle((int) mAnimationPosition);
-				mCurrentAnimationTime += ANIMATION_FRAME_DURATION;
-				mHandler.sendMessageAtTime(mHandler.obtainMessage(MSG_ANIMATE),
-						mCurrentAnimationTime);
+				moveHandleTo(mTrajectory.getPosition(t));
+				scheduleFrame();
 			}
 		}
 	}
 
-	private void incrementAnimation() {
-		long now = SystemClock.uptimeMillis();
-		float t = (now - mAnimationLastTime) / 1000.0f; // ms -> s
-		final float position = mAnimationPosition;
-		final float v = mAnimatedVelocity; // px/s
-		final float a = mAnimatedAcceleration; // px/s/s
-		mAnimationPosition = position + (v * t) + (0.5f * a * t * t); // px
-		mAnimatedVelocity = v + (a * t); // px/s
-		mAnimationLastTime = now; // ms
+	/**
+	 * @return position of the handle once the drawer is fully opened
+	 */
+	private int getOpenedPosition() {
+		int position = 0;
+
+		switch (mOrientation) {
+		case ORIENTATION_TOP_DOWN:
+			position = getHeight() - mHandleHeight - mExpandedOffset;
+			break;
+
+		case ORIENTATION_BOTTOM_UP:
+			position = mExpandedOffset;
+			break;
+
+		case ORIENTATION_LEFT_TO_RIGHT:
+			position = getWidth() - mHandleWidth - mExpandedOffset;
+			break;
+
+		case ORIENTATION_RIGHT_TO_LEFT:
+			position = mExpandedOffset;
+			break;
+
+		}
+
+		return position;
+	}
+
+	/**
+	 * @return position of the handle once the drawer is fully closed
+	 */
+	private int getClosedPosition() {
+		int position = 0;
+
+		switch (mOrientation) {
+		case ORIENTATION_TOP_DOWN:
+			position = -mCollapsedOffset;
+			break;
+
+		case ORIENTATION_BOTTOM_UP:
+			position = getHeight() - mHandleHeight + mCollapsedOffset;
+			break;
+
+		case ORIENTATION_LEFT_TO_RIGHT:
+			position = -mCollapsedOffset;
+			break;
+
+		case ORIENTATION_RIGHT_TO_LEFT:
+			position = getWidth() - mHandleWidth + mCollapsedOffset;
+			break;
+
+		}
+
+		return position;
+	}
+
+	/**
+	 * @return true if the content is shown or about to be, its measure and
+	 *         layout can't be deferred
+	 */
+	private boolean isContentRevealed() {
+		return mExpanded || mTracking || mAnimating;
+	}
+
+	/**
+	 * Measures the content with the specs computed by
+	 * {@link #onMeasure(int, int)}, unless it was already measured with the
+	 * same specs, and either didn't request a layout since or is waiting for
+	 * the layout following that measure. The content stays layout-requested
+	 * until laid out, and {@link View#measure(int, int)} ignores its own cache
+	 * meanwhile, so it would measure the whole subtree again.
+	 * 
+	 * @return true if the content was measured
+	 */
+	private boolean measureContent() {
+		final View content = mContent;
+		if (mContentWidthMeasureSpec == mLastContentWidthMeasureSpec
+				&& mContentHeightMeasureSpec == mLastContentHeightMeasureSpec
+				&& (mContentMeasured || !content.isLayoutRequested())) {
+			return false;
+		}
+		content.measure(mContentWidthMeasureSpec, mContentHeightMeasureSpec);
+		mLastContentWidthMeasureSpec = mContentWidthMeasureSpec;
+		mLastContentHeightMeasureSpec = mContentHeightMeasureSpec;
+		mContentMeasured = true;
+		return true;
+	}
+
+	private void layoutContent() {
+		mContentLayoutPending = false;
+		mContentMeasured = false;
+
+		final View content = mContent;
+		final int width = content.getMeasuredWidth();
+		final int height = content.getMeasuredHeight();
+
+		switch (mOrientation) {
+		case ORIENTATION_TOP_DOWN:
+		case ORIENTATION_LEFT_TO_RIGHT:
+			content.layout(0, 0, width, height);
+			break;
+
+		case ORIENTATION_BOTTOM_UP:
+			final int top = mExpandedOffset + mHandle.getMeasuredHeight();
+			content.layout(0, top, width, top + height);
+			break;
+
+		case ORIENTATION_RIGHT_TO_LEFT:
+			final int left = mExpandedOffset + mHandle.getMeasuredWidth();
+			content.layout(left, 0, left + width, height);
+			break;
+
+		}
+	}
+
+	/**
+	 * Measures and lays out the content if it changed or was deferred while
+	 * the drawer was closed.
+	 */
+	private void ensureContentLaidOut() {
+		final boolean layoutRequested = mContent.isLayoutRequested();
+		if (measureContent() || layoutRequested || mContentLayoutPending) {
+			if (layoutRequested) {
+				++mContentGeneration;
+			}
+			layoutContent();
+		}
 	}
 
 	private void closeDrawer() {
 		moveHandle(COLLAPSED_FULL_CLOSED);
-		mContent.setVisibility(View.GONE);
-		mContent.destroyDrawingCache();
+		setContentVisibility(View.INVISIBLE);
+		// a snapshot of the closed content may be kept for the next motion
+		endContentRendering(false);
 
 		if (!mExpanded) {
 			return;
@@ -1567,8 +3038,15 @@ public class SlidingDrawer extends ViewGroup {
 	}
 
 	private void openDrawer() {
+		if (mInflateRequest == null) {
+			ensureContentInflated();
+		}
+		// otherwise opened on the placeholder, the content comes with the
+		// background inflation
 		moveHandle(EXPANDED_FULL_OPEN);
-		mContent.setVisibility(View.VISIBLE);
+		ensureContentLaidOut();
+		setContentVisibility(View.VISIBLE);
+		endContentRendering(true);
 
 		if (mExpanded) {
 			return;
@@ -1626,14 +3104,165 @@ public class SlidingDrawer extends ViewGroup {
 		}
 	}
 
-	private class SlidingHandler extends Handler {
-		public void handleMessage(Message m) {
-			switch (m.what) {
-			case MSG_ANIMATE:
-				doAnimation();
+	/**
+	 * Warms the closed drawer up while the main looper is idle, so that its
+	 * first motion is as cheap as the next ones: the content is measured,
+	 * laid out, then the render strategy builds ahead what it can keep, one
+	 * step per idle callback.<br>
+	 * Armed by every layout of the drawer, f.e. the next one after a touch
+	 * cancelled it, until the content is warmed up or prepared by a motion.
+	 */
+	private void scheduleWarmUp() {
+		if (mWarmUp != null || mWarmedUp || mExpanded || mTracking
+				|| mAnimating || mContent instanceof ViewStub) {
+			// a stub isn't inflated ahead, it would defeat its purpose
+			return;
+		}
+		if (getWindowToken() == null) {
+			// armed again by the layout once attached
+			return;
+		}
+		mWarmUp = new ContentWarmUp();
+		Looper.myQueue().addIdleHandler(mWarmUp);
+	}
+
+	private void cancelWarmUp() {
+		if (mWarmUp != null) {
+			Looper.myQueue().removeIdleHandler(mWarmUp);
+			mWarmUp = null;
+		}
+	}
+
+	/**
+	 * Lets the render strategy picked by the policy build ahead what it can
+	 * keep until the first motion.
+	 */
+	private void warmUpContentRendering() {
+		final ContentRenderStrategy strategy = mRenderPolicy.select(mContent);
+		if (strategy != mRenderStrategy) {
+			releaseContentRendering();
+			mRenderStrategy = strategy;
+		}
+		strategy.warmUp(this, mContent);
+	}
+
+	private class ContentWarmUp implements MessageQueue.IdleHandler {
+		private int mStep = WARM_UP_MEASURE;
+
+		@Override
+		public boolean queueIdle() {
+			if (mWarmUp != this) {
+				return false;
+			}
+			if (mExpanded || mTracking || mAnimating
+					|| mContent instanceof ViewStub) {
+				mWarmUp = null;
+				return false;
+			}
+			if (mContentWidthMeasureSpec == 0) {
+				// the drawer itself isn't measured yet, armed again by its
+				// layout
+				mWarmUp = null;
+				return false;
+			}
+
+			sLogcat.v("warm up step ? ", mStep);
+
+			switch (mStep) {
+			case WARM_UP_MEASURE:
+				if (!measureContent() && !mContentLayoutPending
+						&& !mContent.isLayoutRequested()) {
+					// laid out already
+					mStep = WARM_UP_SNAPSHOT;
+					return true;
+				}
+				mStep = WARM_UP_LAYOUT;
+				return true;
+
+			case WARM_UP_LAYOUT:
+				// reuses the measure of the previous step, unless the content
+				// requested a layout again since
+				ensureContentLaidOut();
+				mStep = WARM_UP_SNAPSHOT;
+				return true;
+
+			case WARM_UP_SNAPSHOT:
+				if (!mTranslationMovement) {
+					warmUpContentRendering();
+				}
+				mWarmedUp = true;
 				break;
+
+			}
+
+			mWarmUp = null;
+			return false;
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+	private void registerTrimMemoryCallbacks() {
+		if (mTrimMemoryCallbacks == null) {
+			mTrimMemoryCallbacks = new TrimMemoryCallbacks();
+			getContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+		}
+	}
+
+	/**
+	 * Gives memory back while the drawer is closed and at rest: the snapshots
+	 * at moderate pressure, the content inflated from a stub too at critical
+	 * pressure if releasable. Both are built again lazily on the next motion.
+	 * 
+	 * @param critical
+	 *            true if the system is critically low on memory
+	 */
+	private void trimMemory(boolean critical) {
+		if (mExpanded || mTracking || mAnimating) {
+			return;
+		}
+
+		sLogcat.v("trim memory ? ", getRetainedBytes(), " bytes, critical ? ",
+				critical);
+
+		cancelWarmUp();
+		// the snapshot or layer the strategy kept, then the pooled buffers
+		releaseContentRendering();
+		SnapshotBitmapPool.getInstance().clear();
+
+		if (critical && mContentReleasable && mContentStub != null
+				&& !(mContent instanceof ViewStub)) {
+			final View content = mContent;
+			final ViewStub stub = mContentStub;
+			final int index = indexOfChild(content);
+			final ViewGroup.LayoutParams params = stub.getLayoutParams();
+			removeViewInLayout(content);
+			addViewInLayout(stub, index,
+					params != null ? params : content.getLayoutParams(), true);
+			mContentStub = null;
+			setContent(stub);
+		}
+	}
+
+	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+	private class TrimMemoryCallbacks implements ComponentCallbacks2 {
+		@Override
+		public void onTrimMemory(int level) {
+			if (level >= TRIM_MEMORY_COMPLETE
+					|| level == TRIM_MEMORY_RUNNING_CRITICAL) {
+				trimMemory(true);
+			} else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+				trimMemory(false);
 			}
 		}
+
+		@Override
+		public void onLowMemory() {
+			trimMemory(true);
+		}
+
+		@Override
+		public void onConfigurationChanged(Configuration newConfig) {
+		}
 	}
 
 }
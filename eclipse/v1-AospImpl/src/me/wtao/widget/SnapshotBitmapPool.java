@@ -0,0 +1,152 @@
+package me.wtao.widget;
+
+import java.util.ArrayList;
+
+import android.graphics.Bitmap;
+
+/**
+ * Pool of the bitmaps holding content snapshots, shared by every
+ * {@link SlidingDrawer}, so that the snapshot of a gesture reuses the buffer
+ * of a previous one instead of allocating a new one right at its start.<br>
+ * 
+ * Free bitmaps are keyed by size and config, and kept within a byte budget:
+ * the least recently released ones are recycled first. Hits, misses and
+ * evictions are counted to tune the budget.
+ */
+public class SnapshotBitmapPool {
+	private static SnapshotBitmapPool sInstance;
+
+	/**
+	 * free bitmaps, from the least to the most recently released
+	 */
+	private final ArrayList<Bitmap> mFree = new ArrayList<Bitmap>();
+	private long mMaxSize;
+	private long mSize;
+
+	private int mHitCount;
+	private int mMissCount;
+	private int mEvictionCount;
+
+	/**
+	 * @param maxSize
+	 *            budget (bytes) of the free bitmaps
+	 */
+	public SnapshotBitmapPool(long maxSize) {
+		setMaxSize(maxSize);
+	}
+
+	/**
+	 * @return the pool shared by every drawer, with a budget of one eighth of
+	 *         the heap unless set
+	 */
+	public static synchronized SnapshotBitmapPool getInstance() {
+		if (sInstance == null) {
+			sInstance = new SnapshotBitmapPool(Runtime.getRuntime()
+					.maxMemory() / 8);
+		}
+		return sInstance;
+	}
+
+	/**
+	 * Sets the budget of the free bitmaps, evicting the least recently
+	 * released ones if needed.
+	 * 
+	 * @param maxSize
+	 *            budget in bytes, 0 to disable the pooling
+	 */
+	public synchronized void setMaxSize(long maxSize) {
+		if (maxSize < 0) {
+			throw new IllegalArgumentException(
+					"The max size should not be negative.");
+		}
+		mMaxSize = maxSize;
+		trimToSize(maxSize);
+	}
+
+	public synchronized long getMaxSize() {
+		return mMaxSize;
+	}
+
+	/**
+	 * @return bytes held by the free bitmaps
+	 */
+	public synchronized long getSize() {
+		return mSize;
+	}
+
+	/**
+	 * Returns a bitmap of the given size and config, reused if possible. Its
+	 * pixels are undefined, they are not cleared.
+	 */
+	public synchronized Bitmap acquire(int width, int height,
+			Bitmap.Config config) {
+		for (int i = mFree.size() - 1; i >= 0; --i) {
+			final Bitmap bitmap = mFree.get(i);
+			if (bitmap.getWidth() == width && bitmap.getHeight() == height
+					&& bitmap.getConfig() == config) {
+				mFree.remove(i);
+				mSize -= sizeOf(bitmap);
+				++mHitCount;
+				return bitmap;
+			}
+		}
+
+		++mMissCount;
+		return Bitmap.createBitmap(width, height, config);
+	}
+
+	/**
+	 * Gives a bitmap back to the pool, it must not be used anymore.
+	 */
+	public synchronized void release(Bitmap bitmap) {
+		if (bitmap == null || bitmap.isRecycled()) {
+			return;
+		}
+
+		mFree.add(bitmap);
+		mSize += sizeOf(bitmap);
+		trimToSize(mMaxSize);
+	}
+
+	/**
+	 * Recycles every free bitmap.
+	 */
+	public synchronized void clear() {
+		trimToSize(0);
+	}
+
+	public synchronized int getHitCount() {
+		return mHitCount;
+	}
+
+	public synchronized int getMissCount() {
+		return mMissCount;
+	}
+
+	public synchronized int getEvictionCount() {
+		return mEvictionCount;
+	}
+
+	/**
+	 * @return bytes held by the pixels of the bitmap
+	 */
+	static long sizeOf(Bitmap bitmap) {
+		return (long) bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	private void trimToSize(long maxSize) {
+		while (mSize > maxSize && !mFree.isEmpty()) {
+			final Bitmap eldest = mFree.remove(0);
+			mSize -= sizeOf(eldest);
+			eldest.recycle();
+			++mEvictionCount;
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SnapshotBitmapPool[size=" + mSize + ", maxSize=" + mMaxSize
+				+ ", hits=" + mHitCount + ", misses=" + mMissCount
+				+ ", evictions=" + mEvictionCount + "]";
+	}
+}
@@ -0,0 +1,155 @@
+package me.wtao.widget;
+
+import android.view.View;
+
+/**
+ * Picks the quality of the snapshots of {@link SoftwareCacheStrategy} from
+ * the frame budget: when too many frames of a motion overrun the budget, the
+ * next motion uses a lower quality, and once a motion runs without any
+ * overrun the quality goes back up.<br>
+ * 
+ * The tiers are, from the highest to the lowest:
+ * <ul>
+ * <li>{@link #QUALITY_FULL}: ARGB_8888 at full resolution</li>
+ * <li>{@link #QUALITY_REDUCED_DEPTH}: RGB_565 at full resolution, half the
+ * memory, for opaque content only</li>
+ * <li>{@link #QUALITY_DOWNSCALED}: half the resolution, drawn back with
+ * filtering, a quarter of the memory or less</li>
+ * </ul>
+ */
+public class SnapshotQualityPolicy {
+	public static final int QUALITY_FULL = 0;
+	public static final int QUALITY_REDUCED_DEPTH = 1;
+	public static final int QUALITY_DOWNSCALED = 2;
+
+	/**
+	 * a frame overruns once it takes half a budget more than the budget
+	 */
+	private static final float OVERRUN_RATIO = 1.5f;
+	/**
+	 * the quality is lowered when more than a quarter of the frames overrun
+	 */
+	private static final float DEGRADE_RATIO = 0.25f;
+	/**
+	 * motions shorter than {@value #MINIMUM_FRAME_COUNT} frames tell nothing
+	 * about the budget
+	 */
+	private static final int MINIMUM_FRAME_COUNT = 4;
+
+	/**
+	 * duration (ms) a frame should not exceed, 0 to follow the display
+	 */
+	private final float mFrameBudget;
+	/**
+	 * budget of the current motion
+	 */
+	private float mMotionFrameBudget = FrameTicker.FALLBACK_FRAME_DURATION;
+	private int mQuality = QUALITY_FULL;
+
+	private long mLastFrameTime;
+	private int mFrameCount;
+	private int mOverrunCount;
+
+	/**
+	 * The budget is the duration of a frame of the display of the drawer.
+	 */
+	public SnapshotQualityPolicy() {
+		mFrameBudget = 0;
+	}
+
+	/**
+	 * @param frameBudget
+	 *            duration (ms) a frame should not exceed, whatever the display
+	 */
+	public SnapshotQualityPolicy(float frameBudget) {
+		if (frameBudget <= 0) {
+			throw new IllegalArgumentException(
+					"The frame budget should be positive.");
+		}
+		mFrameBudget = frameBudget;
+	}
+
+	/**
+	 * @return the quality of the snapshot of the content for the next motion,
+	 *         one of {@link #QUALITY_FULL}, {@link #QUALITY_REDUCED_DEPTH} or
+	 *         {@link #QUALITY_DOWNSCALED}
+	 */
+	public int select(View content) {
+		if (mQuality == QUALITY_REDUCED_DEPTH && !content.isOpaque()) {
+			// the alpha channel can't be dropped, lower the resolution then
+			return QUALITY_DOWNSCALED;
+		}
+		return mQuality;
+	}
+
+	/**
+	 * Invoked when a motion starts, resets the frame statistics.
+	 * 
+	 * @param frameDuration
+	 *            duration (ms) of a frame of the display, the budget unless
+	 *            one was given to the constructor
+	 * @see SlidingDrawer#getFrameDuration()
+	 */
+	public void onMotionStarted(float frameDuration) {
+		mMotionFrameBudget = (mFrameBudget > 0 ? mFrameBudget : frameDuration);
+		mLastFrameTime = 0;
+		mFrameCount = 0;
+		mOverrunCount = 0;
+	}
+
+	/**
+	 * Invoked each time the content is drawn during the motion, only the
+	 * first draw of each frame counts.
+	 * 
+	 * @param frameTime
+	 *            time (ms) of the frame, in the
+	 *            {@link android.os.SystemClock#uptimeMillis()} time base
+	 * @param continued
+	 *            true if the frame was requested within a frame of the
+	 *            previous one, false if the drawer was idle in between, f.e.
+	 *            the finger paused, the interval isn't counted then
+	 */
+	public void onFrame(long frameTime, boolean continued) {
+		if (frameTime == mLastFrameTime) {
+			// drawn again within the same frame
+			return;
+		}
+		if (continued && mLastFrameTime != 0) {
+			++mFrameCount;
+			if (frameTime - mLastFrameTime > mMotionFrameBudget * OVERRUN_RATIO) {
+				++mOverrunCount;
+			}
+		}
+		mLastFrameTime = frameTime;
+	}
+
+	/**
+	 * Invoked when the motion ends, adjusts the quality of the next one.
+	 */
+	public void onMotionEnded() {
+		if (mFrameCount < MINIMUM_FRAME_COUNT) {
+			return;
+		}
+		if (mOverrunCount > mFrameCount * DEGRADE_RATIO) {
+			mQuality = Math.min(mQuality + 1, QUALITY_DOWNSCALED);
+		} else if (mOverrunCount == 0) {
+			mQuality = Math.max(mQuality - 1, QUALITY_FULL);
+		}
+	}
+
+	/**
+	 * @return the quality reached so far, before the content is taken into
+	 *         account
+	 */
+	public int getQuality() {
+		return mQuality;
+	}
+
+	/**
+	 * @return number of frames which overran the budget during the last
+	 *         motion
+	 */
+	public int getOverrunCount() {
+		return mOverrunCount;
+	}
+}
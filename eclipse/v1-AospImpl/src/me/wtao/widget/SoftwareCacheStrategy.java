@@ -0,0 +1,194 @@
+package me.wtao.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+
+/**
+ * Renders the content from a software snapshot, drawn once when the motion
+ * starts. The historical behavior of {@link SlidingDrawer} without hardware
+ * acceleration.<br>
+ * 
+ * The snapshot buffer comes from the {@link SnapshotBitmapPool} shared by
+ * every drawer, rather than allocating a drawing cache on every gesture. It is
+ * kept while the drawer is closed and drawn again only once the content has
+ * changed, according to {@link SlidingDrawer#getContentGeneration()}.<br>
+ * 
+ * Its quality is picked by a {@link SnapshotQualityPolicy} from the frames
+ * which overran their budget: a reduced depth for opaque content, or a
+ * downscaled snapshot drawn back with filtering. The content is drawn live at
+ * full quality again once the drawer settles opened.
+ */
+public class SoftwareCacheStrategy implements ContentRenderStrategy {
+	/**
+	 * scale of the snapshots of {@link SnapshotQualityPolicy#QUALITY_DOWNSCALED}
+	 */
+	private static final float DOWNSCALE = 0.5f;
+
+	private final SnapshotBitmapPool mPool;
+	private final SnapshotQualityPolicy mQualityPolicy;
+	private final Canvas mCanvas = new Canvas();
+	private final Paint mFilterPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+	private final RectF mDestination = new RectF();
+	private final Rect mSource = new Rect();
+	private final Rect mClip = new Rect();
+	private Bitmap mSnapshot;
+	/**
+	 * content generation the snapshot was drawn from
+	 */
+	private int mSnapshotGeneration;
+	private int mSnapshotQuality;
+
+	public SoftwareCacheStrategy() {
+		this(SnapshotBitmapPool.getInstance());
+	}
+
+	/**
+	 * @param pool
+	 *            the pool the snapshot buffers are taken from
+	 */
+	public SoftwareCacheStrategy(SnapshotBitmapPool pool) {
+		this(pool, new SnapshotQualityPolicy());
+	}
+
+	/**
+	 * @param pool
+	 *            the pool the snapshot buffers are taken from
+	 * @param qualityPolicy
+	 *            picks the quality of the snapshots
+	 */
+	public SoftwareCacheStrategy(SnapshotBitmapPool pool,
+			SnapshotQualityPolicy qualityPolicy) {
+		mPool = pool;
+		mQualityPolicy = qualityPolicy;
+	}
+
+	public SnapshotQualityPolicy getQualityPolicy() {
+		return mQualityPolicy;
+	}
+
+	@Override
+	public void onMotionStarted(SlidingDrawer drawer, View content) {
+		mQualityPolicy.onMotionStarted(drawer.getFrameDuration());
+		drawSnapshot(drawer, content);
+	}
+
+	@Override
+	public void warmUp(SlidingDrawer drawer, View content) {
+		// reused by the first motion, unless the content changes by then
+		drawSnapshot(drawer, content);
+	}
+
+	/**
+	 * Draws the snapshot of the content, unless the one drawn before is still
+	 * up to date.
+	 */
+	private void drawSnapshot(SlidingDrawer drawer, View content) {
+		final int quality = mQualityPolicy.select(content);
+		final float scale = (quality == SnapshotQualityPolicy.QUALITY_DOWNSCALED ? DOWNSCALE
+				: 1f);
+		final int width = (int) Math.ceil(content.getWidth() * scale);
+		final int height = (int) Math.ceil(content.getHeight() * scale);
+		final int generation = drawer.getContentGeneration();
+		if (mSnapshot != null && mSnapshotGeneration == generation
+				&& mSnapshotQuality == quality
+				&& mSnapshot.getWidth() == width
+				&& mSnapshot.getHeight() == height) {
+			// nothing changed since the last motion
+			return;
+		}
+
+		releaseSnapshot();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+
+		// the alpha channel is only dropped for opaque content
+		final Bitmap.Config config = (quality != SnapshotQualityPolicy.QUALITY_FULL
+				&& content.isOpaque() ? Bitmap.Config.RGB_565
+				: Bitmap.Config.ARGB_8888);
+		try {
+			mSnapshot = mPool.acquire(width, height, config);
+		} catch (OutOfMemoryError e) {
+			// drawn directly then
+			return;
+		}
+		mSnapshot.eraseColor(0);
+		// any change while drawing is a change for the next motion
+		mSnapshotGeneration = generation;
+		mSnapshotQuality = quality;
+
+		final Canvas canvas = mCanvas;
+		canvas.setBitmap(mSnapshot);
+		canvas.save();
+		canvas.scale(scale, scale);
+		canvas.translate(-content.getScrollX(), -content.getScrollY());
+		content.draw(canvas);
+		canvas.restore();
+		canvas.setBitmap(null);
+	}
+
+	@Override
+	public void draw(SlidingDrawer drawer, Canvas canvas, View content,
+			float left, float top) {
+		mQualityPolicy.onFrame(drawer.getFrameTime(),
+				drawer.isFrameContinued());
+
+		if (mSnapshot == null) {
+			DirectDrawStrategy.drawAt(drawer, canvas, content, left, top);
+			return;
+		}
+
+		// the drawer clips the canvas to the visible slice of the content,
+		// only that part of the snapshot is read
+		final Rect clip = mClip;
+		if (!canvas.getClipBounds(clip)) {
+			return;
+		}
+		final RectF destination = mDestination;
+		destination.set(left, top, left + content.getWidth(), top
+				+ content.getHeight());
+		if (!destination.intersect(clip.left, clip.top, clip.right, clip.bottom)) {
+			return;
+		}
+
+		final float scale = (mSnapshotQuality == SnapshotQualityPolicy.QUALITY_DOWNSCALED ? DOWNSCALE
+				: 1f);
+		final Rect source = mSource;
+		source.set((int) ((destination.left - left) * scale),
+				(int) ((destination.top - top) * scale),
+				(int) Math.ceil((destination.right - left) * scale),
+				(int) Math.ceil((destination.bottom - top) * scale));
+		canvas.drawBitmap(mSnapshot, source, destination,
+				scale != 1f ? mFilterPaint : null);
+	}
+
+	@Override
+	public void onMotionEnded(SlidingDrawer drawer, View content,
+			boolean opened) {
+		mQualityPolicy.onMotionEnded();
+		if (opened) {
+			releaseSnapshot();
+		}
+	}
+
+	@Override
+	public void release(SlidingDrawer drawer, View content) {
+		releaseSnapshot();
+	}
+
+	@Override
+	public long getRetainedSize() {
+		return (mSnapshot != null ? SnapshotBitmapPool.sizeOf(mSnapshot) : 0);
+	}
+
+	private void releaseSnapshot() {
+		if (mSnapshot != null) {
+			mPool.release(mSnapshot);
+			mSnapshot = null;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package me.wtao.widget;
+
+/**
+ * Damped spring attached to the target: a = -stiffness*x - damping*v, where x
+ * is the displacement from the target.<br>
+ * A damping ratio of 1 (critically damped) settles in the fewest frames
+ * without overshooting; lower ratios bounce, higher ones crawl.
+ */
+public class SpringPhysics implements DrawerPhysics {
+	/**
+	 * the spring is at rest once closer than {@value #POSITION_TOLERANCE} px
+	 * from the target...
+	 */
+	private static final float POSITION_TOLERANCE = 0.5f;
+	/**
+	 * ... and slower than {@value #VELOCITY_TOLERANCE} px/s
+	 */
+	private static final float VELOCITY_TOLERANCE = 10.0f;
+
+	private final float mStiffness;
+	private final float mDampingRatio;
+
+	/**
+	 * @param stiffness
+	 *            spring constant per unit of mass, in 1/s/s
+	 * @param dampingRatio
+	 *            ratio of the damping to the critical damping, 1 for a
+	 *            critically damped spring
+	 */
+	public SpringPhysics(float stiffness, float dampingRatio) {
+		if (stiffness <= 0) {
+			throw new IllegalArgumentException(
+					"The stiffness should be positive.");
+		}
+		if (dampingRatio <= 0) {
+			throw new IllegalArgumentException(
+					"The damping ratio should be positive.");
+		}
+		mStiffness = stiffness;
+		mDampingRatio = dampingRatio;
+	}
+
+	@Override
+	public Trajectory createTrajectory(float start, float velocity,
+			float target) {
+		return new SpringTrajectory(start, velocity, target, mStiffness,
+				mDampingRatio);
+	}
+
+	private static class SpringTrajectory extends Trajectory {
+		private final double mOmega;
+		private final double mDampingRatio;
+		/**
+		 * underdamped: x = e^(-zeta*omega*t) * (c1*cos(wd*t) + c2*sin(wd*t));
+		 * critically damped: x = (c1 + c2*t) * e^(-omega*t); overdamped: x =
+		 * c1*e^(r1*t) + c2*e^(r2*t)
+		 */
+		private double mC1;
+		private double mC2;
+		private double mR1;
+		private double mR2;
+
+		SpringTrajectory(float start, float velocity, float target,
+				float stiffness, float dampingRatio) {
+			super(start, target);
+
+			mOmega = Math.sqrt(stiffness);
+			mDampingRatio = dampingRatio;
+
+			final double x0 = start - target;
+			final double v0 = velocity;
+			if (dampingRatio < 1) {
+				mR1 = mOmega * Math.sqrt(1 - dampingRatio * dampingRatio); // wd
+				mC1 = x0;
+				mC2 = (v0 + dampingRatio * mOmega * x0) / mR1;
+			} else if (dampingRatio == 1) {
+				mC1 = x0;
+				mC2 = v0 + mOmega * x0;
+			} else {
+				final double root = mOmega
+						* Math.sqrt(dampingRatio * dampingRatio - 1);
+				mR1 = -dampingRatio * mOmega + root;
+				mR2 = -dampingRatio * mOmega - root;
+				mC2 = (v0 - mR1 * x0) / (mR2 - mR1);
+				mC1 = x0 - mC2;
+			}
+
+			// energy v*v + k*x*x never grows, so the spring stays at rest
+			// from the first moment it falls under the tolerance
+			final double tolerance = Math.min(VELOCITY_TOLERANCE
+					* VELOCITY_TOLERANCE, stiffness * POSITION_TOLERANCE
+					* POSITION_TOLERANCE);
+			double upper = 0.125;
+			while (energy(upper) >= tolerance && upper < 60) {
+				upper *= 2;
+			}
+			double lower = 0;
+			if (energy(0) < tolerance) {
+				upper = 0;
+			}
+			// bisection to the millisecond
+			while (upper - lower > 0.001) {
+				final double middle = (lower + upper) / 2;
+				if (energy(middle) < tolerance) {
+					upper = middle;
+				} else {
+					lower = middle;
+				}
+			}
+			setDuration((float) upper);
+		}
+
+		private double energy(double t) {
+			final double x = displacement(t);
+			final double v = speed(t);
+			return v * v + mOmega * mOmega * x * x;
+		}
+
+		private double displacement(double t) {
+			if (mDampingRatio < 1) {
+				final double wd = mR1;
+				return Math.exp(-mDampingRatio * mOmega * t)
+						* (mC1 * Math.cos(wd * t) + mC2 * Math.sin(wd * t));
+			} else if (mDampingRatio == 1) {
+				return (mC1 + mC2 * t) * Math.exp(-mOmega * t);
+			} else {
+				return mC1 * Math.exp(mR1 * t) + mC2 * Math.exp(mR2 * t);
+			}
+		}
+
+		private double speed(double t) {
+			if (mDampingRatio < 1) {
+				final double wd = mR1;
+				final double alpha = mDampingRatio * mOmega;
+				return Math.exp(-alpha * t)
+						* ((-alpha * mC1 + wd * mC2) * Math.cos(wd * t) + (-alpha
+								* mC2 - wd * mC1)
+								* Math.sin(wd * t));
+			} else if (mDampingRatio == 1) {
+				return (mC2 - mOmega * (mC1 + mC2 * t)) * Math.exp(-mOmega * t);
+			} else {
+				return mR1 * mC1 * Math.exp(mR1 * t) + mR2 * mC2
+						* Math.exp(mR2 * t);
+			}
+		}
+
+		@Override
+		protected float computePosition(float t) {
+			return getTarget() + (float) displacement(t);
+		}
+
+		@Override
+		protected float computeVelocity(float t) {
+			return (float) speed(t);
+		}
+	}
+}
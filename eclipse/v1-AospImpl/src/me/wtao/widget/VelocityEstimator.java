@@ -0,0 +1,163 @@
+package me.wtao.widget;
+
+/**
+ * Estimates the velocity of a pointer along a single axis, the one of the
+ * drawer, so that off-axis motion never pollutes it.<br>
+ * 
+ * Samples are kept in a fixed-size ring buffer of primitives and the velocity
+ * is the slope of a least-squares line fitted through the samples of the last
+ * {@value #HORIZON} ms. The same line extrapolates the pointer to a future
+ * time, to compensate the input-to-display latency. Nothing is allocated
+ * once constructed, so one estimator serves every gesture of a drawer, and it
+ * is pure Java so it can be unit-tested without Android.<br>
+ * Time unit is one millisecond, position unit is one pixel.
+ */
+public class VelocityEstimator {
+	/**
+	 * capacity ({@value #CAPACITY} samples) of the ring buffer
+	 */
+	private static final int CAPACITY = 20;
+	/**
+	 * only the samples of the last {@value #HORIZON} ms are fitted
+	 */
+	private static final long HORIZON = 100;
+	/**
+	 * if no sample was added for {@value #ASSUME_POINTER_STOPPED_TIME} ms, the
+	 * pointer is considered to have stopped in between
+	 */
+	private static final long ASSUME_POINTER_STOPPED_TIME = 40;
+
+	private final long[] mTimes = new long[CAPACITY];
+	private final float[] mPositions = new float[CAPACITY];
+	/**
+	 * index of the newest sample
+	 */
+	private int mIndex = -1;
+	private int mCount;
+	/**
+	 * slope (px/ms) of the last fit
+	 */
+	private double mSlope;
+
+	/**
+	 * Forgets every sample, f.e. at the start of a gesture.
+	 */
+	public void clear() {
+		mIndex = -1;
+		mCount = 0;
+	}
+
+	/**
+	 * Adds a sample, samples must be added in chronological order.
+	 * 
+	 * @param time
+	 *            time (ms) of the sample, f.e.
+	 *            {@link android.view.MotionEvent#getEventTime()}
+	 * @param position
+	 *            position (px) of the pointer along the axis
+	 */
+	public void addSample(long time, float position) {
+		if (mCount > 0 && time - mTimes[mIndex] > ASSUME_POINTER_STOPPED_TIME) {
+			// the pointer paused, what happened before says nothing about the
+			// current velocity
+			clear();
+		}
+
+		mIndex = (mIndex + 1) % CAPACITY;
+		mTimes[mIndex] = time;
+		mPositions[mIndex] = position;
+		if (mCount < CAPACITY) {
+			++mCount;
+		}
+	}
+
+	/**
+	 * @return number of samples in the ring buffer
+	 */
+	public int getSampleCount() {
+		return mCount;
+	}
+
+	/**
+	 * Fits a least-squares line through the recent samples.
+	 * 
+	 * @return velocity along the axis, in px/s, 0 if there are not enough
+	 *         samples
+	 */
+	public float computeVelocity() {
+		if (!fit()) {
+			return 0;
+		}
+		return (float) (mSlope * 1000); // px/s
+	}
+
+	/**
+	 * Extrapolates the position of the pointer from the newest sample along
+	 * the fitted line. The result only depends on the samples, so the same
+	 * sample stream always gives the same predictions.
+	 * 
+	 * @param time
+	 *            time (ms) to predict the position at, f.e. when the frame
+	 *            will be presented
+	 * @param maximumDistance
+	 *            the prediction never goes further than maximumDistance (px)
+	 *            from the newest sample
+	 * @return predicted position (px), the newest one if there are not enough
+	 *         samples, undefined if there is none
+	 */
+	public float predictPosition(long time, float maximumDistance) {
+		final float newest = mPositions[mIndex < 0 ? 0 : mIndex];
+		if (!fit()) {
+			return newest;
+		}
+
+		float distance = (float) (mSlope * (time - mTimes[mIndex]));
+		if (distance > maximumDistance) {
+			distance = maximumDistance;
+		} else if (distance < -maximumDistance) {
+			distance = -maximumDistance;
+		}
+		return newest + distance;
+	}
+
+	/**
+	 * Fits a least-squares line through the samples of the last
+	 * {@value #HORIZON} ms, into {@link #mSlope}.
+	 * 
+	 * @return false if there are not enough samples
+	 */
+	private boolean fit() {
+		if (mCount < 2) {
+			return false;
+		}
+
+		final long newest = mTimes[mIndex];
+		// times relative to the newest sample keep the sums small
+		double sumT = 0, sumX = 0, sumTT = 0, sumTX = 0;
+		int n = 0;
+		for (int i = 0, index = mIndex; i < mCount; ++i) {
+			final long age = newest - mTimes[index];
+			if (age > HORIZON) {
+				break;
+			}
+
+			final double t = -age;
+			final double x = mPositions[index];
+			sumT += t;
+			sumX += x;
+			sumTT += t * t;
+			sumTX += t * x;
+			++n;
+
+			index = (index == 0 ? CAPACITY - 1 : index - 1);
+		}
+
+		final double denominator = n * sumTT - sumT * sumT;
+		if (n < 2 || denominator == 0) {
+			return false;
+		}
+
+		mSlope = (n * sumTX - sumT * sumX) / denominator; // px/ms
+		return true;
+	}
+}
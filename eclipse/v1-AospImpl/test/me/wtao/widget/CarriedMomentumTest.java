@@ -0,0 +1,67 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CarriedMomentumTest {
+	private static final float DELTA = 1e-3f;
+
+	private final CarriedMomentum mMomentum = new CarriedMomentum(100);
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveDecay() {
+		new CarriedMomentum(0);
+	}
+
+	@Test
+	public void keepsTheTrackedVelocityWithoutMomentum() {
+		assertEquals(300, mMomentum.combine(300, 1000), 0);
+	}
+
+	@Test
+	public void keepsTheCarriedVelocityOnAnImmediateRelease() {
+		mMomentum.carry(-2000, 1000);
+		assertEquals(-2000, mMomentum.combine(500, 1000), DELTA);
+	}
+
+	@Test
+	public void decaysTheCarriedVelocityWhileHeld() {
+		mMomentum.carry(2000, 1000);
+		// weight e^-1 after one time constant
+		final double weight = Math.exp(-1);
+		assertEquals(weight * 2000 + (1 - weight) * 500,
+				mMomentum.combine(500, 1100), DELTA);
+	}
+
+	@Test
+	public void letsTheTrackedVelocityTakeOver() {
+		mMomentum.carry(2000, 1000);
+		assertEquals(500, mMomentum.combine(500, 3000), DELTA);
+	}
+
+	@Test
+	public void blendsOnlyOnce() {
+		mMomentum.carry(2000, 1000);
+		mMomentum.combine(500, 1050);
+		assertEquals(500, mMomentum.combine(500, 1060), 0);
+	}
+
+	@Test
+	public void forgetsTheVelocityOnceCleared() {
+		mMomentum.carry(2000, 1000);
+		mMomentum.clear();
+		assertEquals(500, mMomentum.combine(500, 1000), 0);
+	}
+
+	@Test
+	public void blendsInTheUnitItIsGiven() {
+		// a velocity carried in px/s scaled by a density of 2, as the
+		// tracked one, blends as the unscaled ones scaled afterwards
+		final CarriedMomentum unscaled = new CarriedMomentum(100);
+		unscaled.carry(1000, 0);
+		mMomentum.carry(1000 * 2, 0);
+		assertEquals(unscaled.combine(250, 50) * 2,
+				mMomentum.combine(250 * 2, 50), DELTA);
+	}
+}
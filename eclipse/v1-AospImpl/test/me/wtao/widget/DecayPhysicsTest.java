@@ -0,0 +1,83 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import me.wtao.widget.DrawerPhysics.Trajectory;
+
+import org.junit.Test;
+
+public class DecayPhysicsTest {
+	private static final float DELTA = 1e-3f;
+	/**
+	 * the handle rests within half a pixel of the target
+	 */
+	private static final float TOLERANCE = 0.5f;
+
+	private final DecayPhysics mPhysics = new DecayPhysics(10);
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveFriction() {
+		new DecayPhysics(0);
+	}
+
+	@Test
+	public void easesIntoTheTargetFromRest() {
+		final Trajectory trajectory = mPhysics.createTrajectory(0, 0, 100);
+
+		// 100 * (1 - e^(-10 * t)) = 100 - 0.5
+		assertEquals(Math.log(100 / TOLERANCE) / 10, trajectory.getDuration(),
+				DELTA);
+		assertEquals(0, trajectory.getPosition(0), DELTA);
+		assertEquals(100 * (1 - Math.exp(-1)), trajectory.getPosition(0.1f),
+				DELTA);
+		assertEquals(100 - TOLERANCE,
+				trajectory.getPosition(trajectory.getDuration() - 1e-5f), 0.01f);
+	}
+
+	@Test
+	public void stopsOnTheTargetWhenTheMomentumCarriesFurther() {
+		// the momentum would carry the handle 5000 / 10 = 500 px
+		final Trajectory trajectory = mPhysics.createTrajectory(0, 5000, 100);
+
+		assertEquals(5000, trajectory.getVelocity(0), DELTA);
+		assertEquals(Math.log(500 / (400 + TOLERANCE)) / 10,
+				trajectory.getDuration(), DELTA);
+		assertTrue(trajectory.getVelocity(trajectory.getDuration() - 1e-5f) > 0);
+		assertEquals(100, trajectory.getPosition(trajectory.getDuration()), 0);
+		assertEquals(0, trajectory.getVelocity(trajectory.getDuration()), 0);
+	}
+
+	@Test
+	public void decaysTowardsATargetBehind() {
+		final Trajectory trajectory = mPhysics.createTrajectory(100, -200, 0);
+
+		assertEquals(100, trajectory.getPosition(0), DELTA);
+		assertTrue(trajectory.getVelocity(0) < 0);
+		assertTrue(trajectory.getPosition(0.1f) < 100);
+		assertEquals(0, trajectory.getPosition(trajectory.getDuration()), 0);
+	}
+
+	@Test
+	public void stopsRightAwayWithinTheTolerance() {
+		final Trajectory trajectory = mPhysics.createTrajectory(99.8f, 0, 100);
+
+		assertEquals(0, trajectory.getDuration(), 0);
+		assertTrue(trajectory.isFinished(0));
+		assertEquals(100, trajectory.getPosition(0), 0);
+		assertEquals(0, trajectory.getVelocity(0), 0);
+	}
+
+	@Test
+	public void neverStopsShortOfTheTarget() {
+		final Trajectory trajectory = mPhysics.createTrajectory(0, 0, 100);
+
+		float previous = trajectory.getPosition(0);
+		for (float t = 0.001f; t < trajectory.getDuration(); t += 0.001f) {
+			final float position = trajectory.getPosition(t);
+			assertTrue(position > previous);
+			assertTrue(position < 100);
+			previous = position;
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import me.wtao.widget.DrawerStatePublisher.Subscriber;
+import me.wtao.widget.DrawerStatePublisher.Subscription;
+
+import org.junit.Test;
+
+public class DrawerStatePublisherTest {
+	/**
+	 * Runs the tasks only when asked to, counts them.
+	 */
+	private static class QueuedExecutor implements Executor {
+		final List<Runnable> mQueue = new ArrayList<Runnable>();
+		int mTaskCount;
+
+		@Override
+		public void execute(Runnable command) {
+			mQueue.add(command);
+			++mTaskCount;
+		}
+
+		void runAll() {
+			while (!mQueue.isEmpty()) {
+				mQueue.remove(0).run();
+			}
+		}
+	}
+
+	private static class RecordingSubscriber implements
+			Subscriber<DrawerState> {
+		final List<DrawerState> mStates = new ArrayList<DrawerState>();
+		/**
+		 * requested on subscribe, 0 for none
+		 */
+		final long mInitialRequest;
+		Subscription mSubscription;
+		Throwable mError;
+		boolean mCompleted;
+
+		RecordingSubscriber(long initialRequest) {
+			mInitialRequest = initialRequest;
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			mSubscription = subscription;
+			if (mInitialRequest > 0) {
+				subscription.request(mInitialRequest);
+			}
+		}
+
+		@Override
+		public void onNext(DrawerState item) {
+			mStates.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			mError = throwable;
+		}
+
+		@Override
+		public void onComplete() {
+			mCompleted = true;
+		}
+	}
+
+	private final QueuedExecutor mExecutor = new QueuedExecutor();
+	private final DrawerStatePublisher mPublisher = new DrawerStatePublisher(
+			mExecutor);
+
+	private static DrawerState state(float fraction) {
+		return new DrawerState(fraction, 0, SlidingDrawer.STATE_DRAGGING, 0);
+	}
+
+	@Test
+	public void subscribesOnTheExecutor() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		mPublisher.subscribe(subscriber, mExecutor);
+		assertNull(subscriber.mSubscription);
+
+		mExecutor.runAll();
+		assertTrue(subscriber.mSubscription != null);
+		assertEquals(1, mPublisher.getSubscriberCount());
+	}
+
+	@Test
+	public void conflatesTheStatesPublishedBetweenRequests() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+
+		final DrawerState latest = state(0.75f);
+		mPublisher.publish(state(0.25f));
+		mPublisher.publish(state(0.5f));
+		mPublisher.publish(latest);
+		subscriber.mSubscription.request(1);
+		mExecutor.runAll();
+
+		// the states in between are dropped
+		assertEquals(1, subscriber.mStates.size());
+		assertSame(latest, subscriber.mStates.get(0));
+
+		// nothing new since
+		subscriber.mSubscription.request(1);
+		mExecutor.runAll();
+		assertEquals(1, subscriber.mStates.size());
+	}
+
+	@Test
+	public void deliversTheLatestStateFirst() {
+		final DrawerState latest = state(1);
+		mPublisher.publish(latest);
+
+		final RecordingSubscriber subscriber = new RecordingSubscriber(1);
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+
+		assertEquals(1, subscriber.mStates.size());
+		assertSame(latest, subscriber.mStates.get(0));
+	}
+
+	@Test
+	public void drainsOnlyOnDemand() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+		assertEquals(1, mExecutor.mTaskCount);
+
+		// nothing requested, the publisher schedules nothing
+		for (int i = 0; i < 10; ++i) {
+			mPublisher.publish(state(i / 10f));
+		}
+		assertEquals(1, mExecutor.mTaskCount);
+
+		subscriber.mSubscription.request(1);
+		assertEquals(2, mExecutor.mTaskCount);
+		mExecutor.runAll();
+		assertEquals(1, subscriber.mStates.size());
+
+		// the request was consumed
+		mPublisher.publish(state(1));
+		assertEquals(2, mExecutor.mTaskCount);
+	}
+
+	@Test
+	public void schedulesOneDrainForManyStates() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(
+				Long.MAX_VALUE);
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+		final int taskCount = mExecutor.mTaskCount;
+
+		// the drain is pending, the states are conflated into it
+		final DrawerState latest = state(0.5f);
+		mPublisher.publish(state(0.25f));
+		mPublisher.publish(latest);
+		assertEquals(taskCount + 1, mExecutor.mTaskCount);
+
+		mExecutor.runAll();
+		assertEquals(1, subscriber.mStates.size());
+		assertSame(latest, subscriber.mStates.get(0));
+	}
+
+	@Test
+	public void unsubscribesDuringADrain() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(
+				Long.MAX_VALUE) {
+			@Override
+			public void onNext(DrawerState item) {
+				super.onNext(item);
+				mSubscription.cancel();
+			}
+		};
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+
+		mPublisher.publish(state(0.5f));
+		mExecutor.runAll();
+		assertEquals(1, subscriber.mStates.size());
+		assertEquals(0, mPublisher.getSubscriberCount());
+
+		final int taskCount = mExecutor.mTaskCount;
+		mPublisher.publish(state(1));
+		mExecutor.runAll();
+		assertEquals(taskCount, mExecutor.mTaskCount);
+		assertEquals(1, subscriber.mStates.size());
+		assertFalse(subscriber.mCompleted);
+	}
+
+	@Test
+	public void keepsTheOtherSubscribersOnCancel() {
+		final RecordingSubscriber canceled = new RecordingSubscriber(
+				Long.MAX_VALUE);
+		final RecordingSubscriber other = new RecordingSubscriber(
+				Long.MAX_VALUE);
+		mPublisher.subscribe(canceled, mExecutor);
+		mPublisher.subscribe(other, mExecutor);
+		mExecutor.runAll();
+
+		canceled.mSubscription.cancel();
+		mPublisher.publish(state(1));
+		mExecutor.runAll();
+
+		assertEquals(0, canceled.mStates.size());
+		assertEquals(1, other.mStates.size());
+		assertEquals(1, mPublisher.getSubscriberCount());
+	}
+
+	@Test
+	public void reportsANonPositiveRequest() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+
+		subscriber.mSubscription.request(0);
+		mExecutor.runAll();
+		assertTrue(subscriber.mError instanceof IllegalArgumentException);
+		assertEquals(0, mPublisher.getSubscriberCount());
+	}
+
+	@Test
+	public void completesOnClose() {
+		final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+		mPublisher.subscribe(subscriber, mExecutor);
+		mExecutor.runAll();
+
+		mPublisher.close();
+		mExecutor.runAll();
+		assertTrue(mPublisher.isClosed());
+		assertTrue(subscriber.mCompleted);
+		assertEquals(0, mPublisher.getSubscriberCount());
+
+		// the subscribers to come are completed right away
+		final RecordingSubscriber late = new RecordingSubscriber(0);
+		mPublisher.subscribe(late, mExecutor);
+		mExecutor.runAll();
+		assertTrue(late.mSubscription != null);
+		assertTrue(late.mCompleted);
+		assertEquals(0, mPublisher.getSubscriberCount());
+	}
+}
@@ -0,0 +1,69 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import me.wtao.widget.DrawerPhysics.Trajectory;
+
+import org.junit.Test;
+
+public class GravityPhysicsTest {
+	private static final float DELTA = 1e-3f;
+
+	private final GravityPhysics mPhysics = new GravityPhysics(200);
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveAcceleration() {
+		new GravityPhysics(0);
+	}
+
+	@Test
+	public void fallsFromRestInClosedForm() {
+		// 0.5 * 200 * t * t = 100
+		final Trajectory trajectory = mPhysics.createTrajectory(0, 0, 100);
+
+		assertEquals(1.0f, trajectory.getDuration(), DELTA);
+		assertEquals(0, trajectory.getPosition(0), DELTA);
+		assertEquals(25, trajectory.getPosition(0.5f), DELTA);
+		assertEquals(100, trajectory.getVelocity(0.5f), DELTA);
+	}
+
+	@Test
+	public void acceleratesTowardsATargetBehind() {
+		final Trajectory trajectory = mPhysics.createTrajectory(100, 0, 0);
+
+		assertEquals(1.0f, trajectory.getDuration(), DELTA);
+		assertEquals(75, trajectory.getPosition(0.5f), DELTA);
+		assertEquals(-100, trajectory.getVelocity(0.5f), DELTA);
+	}
+
+	@Test
+	public void keepsTheInitialVelocity() {
+		// 0.5 * 200 * t * t + 100 * t = 200
+		final Trajectory trajectory = mPhysics.createTrajectory(0, 100, 200);
+
+		assertEquals(1.0f, trajectory.getDuration(), DELTA);
+		assertEquals(100, trajectory.getVelocity(0), DELTA);
+	}
+
+	@Test
+	public void restsExactlyOnTheTarget() {
+		final Trajectory trajectory = mPhysics.createTrajectory(0, 0, 100);
+
+		assertFalse(trajectory.isFinished(0.999f));
+		assertTrue(trajectory.isFinished(1.0f));
+		assertEquals(100, trajectory.getPosition(1.0f), 0);
+		assertEquals(100, trajectory.getPosition(10), 0);
+		assertEquals(0, trajectory.getVelocity(10), 0);
+	}
+
+	@Test
+	public void isDoneWhenAlreadyOnTheTarget() {
+		final Trajectory trajectory = mPhysics.createTrajectory(50, 0, 50);
+
+		assertEquals(0, trajectory.getDuration(), 0);
+		assertTrue(trajectory.isFinished(0));
+		assertEquals(50, trajectory.getPosition(0), 0);
+	}
+}
@@ -0,0 +1,147 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SnapshotQualityPolicyTest {
+	private static final float FRAME_DURATION = 16;
+
+	private final SnapshotQualityPolicy mPolicy = new SnapshotQualityPolicy();
+
+	/**
+	 * Runs a motion of count frames, every interval ms, all continued.
+	 */
+	private void runMotion(int count, long interval) {
+		mPolicy.onMotionStarted(FRAME_DURATION);
+		long time = 1000;
+		for (int i = 0; i < count; ++i) {
+			mPolicy.onFrame(time, i > 0);
+			time += interval;
+		}
+		mPolicy.onMotionEnded();
+	}
+
+	@Test
+	public void keepsTheQualityWithinTheBudget() {
+		runMotion(20, 16);
+		assertEquals(0, mPolicy.getOverrunCount());
+		assertEquals(SnapshotQualityPolicy.QUALITY_FULL, mPolicy.getQuality());
+	}
+
+	@Test
+	public void degradesOnceTooManyFramesOverrun() {
+		runMotion(20, 33);
+		assertEquals(19, mPolicy.getOverrunCount());
+		assertEquals(SnapshotQualityPolicy.QUALITY_REDUCED_DEPTH,
+				mPolicy.getQuality());
+
+		runMotion(20, 33);
+		assertEquals(SnapshotQualityPolicy.QUALITY_DOWNSCALED,
+				mPolicy.getQuality());
+
+		// the lowest tier
+		runMotion(20, 33);
+		assertEquals(SnapshotQualityPolicy.QUALITY_DOWNSCALED,
+				mPolicy.getQuality());
+	}
+
+	@Test
+	public void upgradesAfterAMotionWithoutOverrun() {
+		runMotion(20, 33);
+		assertEquals(SnapshotQualityPolicy.QUALITY_REDUCED_DEPTH,
+				mPolicy.getQuality());
+
+		runMotion(20, 16);
+		assertEquals(SnapshotQualityPolicy.QUALITY_FULL, mPolicy.getQuality());
+	}
+
+	@Test
+	public void toleratesAFewOverruns() {
+		mPolicy.onMotionStarted(FRAME_DURATION);
+		long time = 1000;
+		for (int i = 0; i < 20; ++i) {
+			mPolicy.onFrame(time, i > 0);
+			time += (i % 5 == 4 ? 40 : 16);
+		}
+		mPolicy.onMotionEnded();
+
+		// neither degraded nor upgraded
+		assertEquals(3, mPolicy.getOverrunCount());
+		assertEquals(SnapshotQualityPolicy.QUALITY_FULL, mPolicy.getQuality());
+	}
+
+	@Test
+	public void ignoresShortMotions() {
+		runMotion(4, 50);
+		assertEquals(SnapshotQualityPolicy.QUALITY_FULL, mPolicy.getQuality());
+	}
+
+	@Test
+	public void ignoresTheIntervalsWhileIdle() {
+		mPolicy.onMotionStarted(FRAME_DURATION);
+		long time = 1000;
+		for (int i = 0; i < 20; ++i) {
+			// the finger pauses 500 ms every 4 frames, no frame is requested
+			final boolean continued = (i > 0 && i % 4 != 0);
+			if (i > 0 && !continued) {
+				time += 500;
+			}
+			mPolicy.onFrame(time, continued);
+			time += 16;
+		}
+		mPolicy.onMotionEnded();
+
+		assertEquals(0, mPolicy.getOverrunCount());
+		assertEquals(SnapshotQualityPolicy.QUALITY_FULL, mPolicy.getQuality());
+	}
+
+	@Test
+	public void countsEachFrameOnce() {
+		mPolicy.onMotionStarted(FRAME_DURATION);
+		long time = 1000;
+		for (int i = 0; i < 10; ++i) {
+			// drawn twice within each frame
+			mPolicy.onFrame(time, i > 0);
+			mPolicy.onFrame(time, i > 0);
+			time += 16;
+		}
+		mPolicy.onMotionEnded();
+
+		assertEquals(0, mPolicy.getOverrunCount());
+	}
+
+	@Test
+	public void followsTheDisplay() {
+		// 33 ms is within the budget of a 30 Hz display
+		mPolicy.onMotionStarted(33.3f);
+		long time = 1000;
+		for (int i = 0; i < 20; ++i) {
+			mPolicy.onFrame(time, i > 0);
+			time += 33;
+		}
+		mPolicy.onMotionEnded();
+		assertEquals(0, mPolicy.getOverrunCount());
+	}
+
+	@Test
+	public void prefersTheGivenBudget() {
+		final SnapshotQualityPolicy policy = new SnapshotQualityPolicy(8);
+		policy.onMotionStarted(FRAME_DURATION);
+		long time = 1000;
+		for (int i = 0; i < 20; ++i) {
+			policy.onFrame(time, i > 0);
+			time += 16;
+		}
+		policy.onMotionEnded();
+
+		assertEquals(19, policy.getOverrunCount());
+		assertEquals(SnapshotQualityPolicy.QUALITY_REDUCED_DEPTH,
+				policy.getQuality());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANonPositiveBudget() {
+		new SnapshotQualityPolicy(0);
+	}
+}
@@ -0,0 +1,110 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import me.wtao.widget.DrawerPhysics.Trajectory;
+
+import org.junit.Test;
+
+public class SpringPhysicsTest {
+	private static final float DELTA = 1e-3f;
+	/**
+	 * the spring rests within half a pixel of the target
+	 */
+	private static final float TOLERANCE = 0.5f;
+	private static final float STIFFNESS = 400;
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveStiffness() {
+		new SpringPhysics(0, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveDampingRatio() {
+		new SpringPhysics(STIFFNESS, 0);
+	}
+
+	@Test
+	public void underdampedOvershootsTheTarget() {
+		final Trajectory trajectory = new SpringPhysics(STIFFNESS, 0.3f)
+				.createTrajectory(0, 0, 100);
+
+		assertStartsAndSettles(trajectory, 0, 0, 100);
+		assertTrue(maximum(trajectory) > 100 + TOLERANCE);
+	}
+
+	@Test
+	public void criticallyDampedNeverOvershoots() {
+		final Trajectory trajectory = new SpringPhysics(STIFFNESS, 1)
+				.createTrajectory(0, 0, 100);
+
+		assertStartsAndSettles(trajectory, 0, 0, 100);
+		assertTrue(maximum(trajectory) <= 100);
+		assertMonotonic(trajectory);
+	}
+
+	@Test
+	public void overdampedNeverOvershootsAndCrawls() {
+		final Trajectory critical = new SpringPhysics(STIFFNESS, 1)
+				.createTrajectory(0, 0, 100);
+		final Trajectory trajectory = new SpringPhysics(STIFFNESS, 2)
+				.createTrajectory(0, 0, 100);
+
+		assertStartsAndSettles(trajectory, 0, 0, 100);
+		assertTrue(maximum(trajectory) <= 100);
+		assertMonotonic(trajectory);
+		assertTrue(trajectory.getDuration() > critical.getDuration());
+	}
+
+	@Test
+	public void keepsTheInitialVelocity() {
+		final float[] ratios = { 0.3f, 1, 2 };
+		for (float ratio : ratios) {
+			final Trajectory trajectory = new SpringPhysics(STIFFNESS, ratio)
+					.createTrajectory(100, -500, 0);
+
+			assertStartsAndSettles(trajectory, 100, -500, 0);
+		}
+	}
+
+	@Test
+	public void isDoneWhenAtRestOnTheTarget() {
+		final Trajectory trajectory = new SpringPhysics(STIFFNESS, 1)
+				.createTrajectory(50, 0, 50);
+
+		assertEquals(0, trajectory.getDuration(), 0);
+		assertEquals(50, trajectory.getPosition(0), 0);
+	}
+
+	private static void assertStartsAndSettles(Trajectory trajectory,
+			float start, float velocity, float target) {
+		final float duration = trajectory.getDuration();
+
+		assertEquals(start, trajectory.getPosition(0), DELTA);
+		assertEquals(velocity, trajectory.getVelocity(0), DELTA);
+		assertTrue(duration > 0);
+		// the settle time is bisected to the millisecond
+		assertEquals(target, trajectory.getPosition(duration - 0.002f),
+				TOLERANCE);
+		assertEquals(target, trajectory.getPosition(duration), 0);
+		assertEquals(0, trajectory.getVelocity(duration), 0);
+	}
+
+	private static float maximum(Trajectory trajectory) {
+		float maximum = -Float.MAX_VALUE;
+		for (float t = 0; t < trajectory.getDuration(); t += 0.001f) {
+			maximum = Math.max(maximum, trajectory.getPosition(t));
+		}
+		return maximum;
+	}
+
+	private static void assertMonotonic(Trajectory trajectory) {
+		float previous = trajectory.getPosition(0);
+		for (float t = 0.001f; t < trajectory.getDuration(); t += 0.001f) {
+			final float position = trajectory.getPosition(t);
+			assertTrue(position >= previous);
+			previous = position;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package me.wtao.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class VelocityEstimatorTest {
+	private static final float DELTA = 1e-2f;
+
+	private final VelocityEstimator mEstimator = new VelocityEstimator();
+
+	@Test
+	public void needsTwoSamples() {
+		assertEquals(0, mEstimator.computeVelocity(), 0);
+		mEstimator.addSample(0, 10);
+		assertEquals(0, mEstimator.computeVelocity(), 0);
+	}
+
+	@Test
+	public void fitsAConstantVelocity() {
+		// 1.5 px/ms every 8 ms
+		for (int i = 0; i <= 10; ++i) {
+			mEstimator.addSample(8 * i, 20 + 12 * i);
+		}
+		assertEquals(1500, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void fitsANegativeVelocity() {
+		for (int i = 0; i <= 10; ++i) {
+			mEstimator.addSample(10 * i, 500 - 7 * i);
+		}
+		assertEquals(-700, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void ignoresSamplesPastTheHorizon() {
+		// 1 px/ms for 100 ms, then 2 px/ms for 150 ms
+		float position = 0;
+		for (int time = 0; time <= 250; time += 10) {
+			mEstimator.addSample(time, position);
+			position += (time < 100 ? 10 : 20);
+		}
+		// only the last 100 ms are fitted
+		assertEquals(2000, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void forgetsTheSamplesBeforeAStop() {
+		for (int time = 0; time <= 50; time += 10) {
+			mEstimator.addSample(time, time);
+		}
+		assertEquals(1000, mEstimator.computeVelocity(), DELTA);
+
+		// no sample for more than 40 ms, the pointer stopped in between
+		mEstimator.addSample(100, 50);
+		assertEquals(1, mEstimator.getSampleCount());
+		assertEquals(0, mEstimator.computeVelocity(), 0);
+
+		mEstimator.addSample(110, 80);
+		assertEquals(3000, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void keepsSamplesUpToTheStopCutoff() {
+		mEstimator.addSample(0, 0);
+		mEstimator.addSample(40, 40);
+		assertEquals(2, mEstimator.getSampleCount());
+		assertEquals(1000, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void wrapsTheRingBufferAround() {
+		// 1 px/ms for 30 samples, then 5 px/ms for 20 samples, 2 ms apart
+		float position = 0;
+		for (int i = 0; i < 50; ++i) {
+			mEstimator.addSample(2 * i, position);
+			position += (i < 29 ? 2 : 10);
+		}
+		// the buffer only holds the last 20 samples
+		assertEquals(20, mEstimator.getSampleCount());
+		assertEquals(5000, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void startsOverOnceCleared() {
+		for (int i = 0; i <= 10; ++i) {
+			mEstimator.addSample(10 * i, 10 * i);
+		}
+		mEstimator.clear();
+		assertEquals(0, mEstimator.getSampleCount());
+		assertEquals(0, mEstimator.computeVelocity(), 0);
+
+		mEstimator.addSample(200, 0);
+		mEstimator.addSample(210, -30);
+		assertEquals(-3000, mEstimator.computeVelocity(), DELTA);
+	}
+
+	@Test
+	public void predictsAlongTheFittedLine() {
+		// 2 px/ms
+		for (int i = 0; i <= 5; ++i) {
+			mEstimator.addSample(10 * i, 100 + 20 * i);
+		}
+		assertEquals(200, mEstimator.predictPosition(50, 100), DELTA);
+		assertEquals(232, mEstimator.predictPosition(66, 100), DELTA);
+	}
+
+	@Test
+	public void predictsBackwardsAlongTheFittedLine() {
+		for (int i = 0; i <= 5; ++i) {
+			mEstimator.addSample(10 * i, 100 - 5 * i);
+		}
+		assertEquals(67, mEstimator.predictPosition(66, 100), DELTA);
+	}
+
+	@Test
+	public void clampsThePredictionToTheMaximumDistance() {
+		for (int i = 0; i <= 5; ++i) {
+			mEstimator.addSample(10 * i, 20 * i);
+		}
+		assertEquals(130, mEstimator.predictPosition(100, 30), DELTA);
+
+		mEstimator.clear();
+		for (int i = 0; i <= 5; ++i) {
+			mEstimator.addSample(10 * i, -20 * i);
+		}
+		assertEquals(-130, mEstimator.predictPosition(100, 30), DELTA);
+	}
+
+	@Test
+	public void predictsTheNewestPositionWithoutAFit() {
+		mEstimator.addSample(0, 42);
+		assertEquals(42, mEstimator.predictPosition(16, 100), 0);
+	}
+
+	@Test
+	public void predictsTheSamePositionsForTheSameStream() {
+		final VelocityEstimator other = new VelocityEstimator();
+		for (int i = 0; i <= 8; ++i) {
+			final float position = (float) Math.sqrt(1000 * i);
+			mEstimator.addSample(7 * i, position);
+			other.addSample(7 * i, position);
+		}
+		assertEquals(other.predictPosition(72, 50),
+				mEstimator.predictPosition(72, 50), 0);
+	}
+}